@@ -0,0 +1,135 @@
+package com.hot6.phopa.api.domain.photobooth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothApiResponse;
+import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothDetailResponse;
+import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothTagResponse;
+import com.hot6.phopa.core.common.model.type.CacheCodecType;
+import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.domain.tag.enumeration.TagType;
+import com.hot6.phopa.core.domain.tag.model.dto.TagDTO;
+import com.hot6.phopa.core.service.CacheValueCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PhotoBoothById 캐시 값(PhotoBoothDetailResponse) 의 직렬화 크기, encode/decode 시간 비교
+ * LEGACY_JSON 은 이전 RedisCacheService 경로 (ObjectMapper -> String)
+ * 직렬화 크기는 encodeDetail 결과의 payloadBytes 보조 지표로 나옴
+ * ./gradlew :api:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PhotoBoothDetailCacheCodecBenchmark {
+
+    private static final int COMPRESS_THRESHOLD = 1024;
+
+    @Param({"LEGACY_JSON", "JSON", "JSON_LZ4", "SMILE", "SMILE_LZ4"})
+    private String codec;
+
+    // 리뷰 이미지 수 (상세 화면은 최대 8장)
+    @Param({"0", "8"})
+    private int reviewImageCount;
+
+    private ObjectMapper objectMapper;
+
+    private CacheValueCodec cacheValueCodec;
+
+    private PhotoBoothDetailResponse response;
+
+    private String encodedString;
+
+    private byte[] encoded;
+
+    private int payloadBytes;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cacheValueCodec = new CacheValueCodec(Jackson2ObjectMapperBuilder.json());
+        response = buildResponse(reviewImageCount);
+        encodedString = encodeLegacy();
+        encoded = encode();
+        payloadBytes = "LEGACY_JSON".equals(codec) ? encodedString.getBytes(StandardCharsets.UTF_8).length : encoded.length;
+    }
+
+    /**
+     * 시간이 아닌 값을 결과 표에 남기기 위한 보조 지표, 매 iteration 마다 같은 값을 다시 넣음
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void setup(PhotoBoothDetailCacheCodecBenchmark benchmark) {
+            payloadBytes = benchmark.payloadBytes;
+        }
+    }
+
+    @Benchmark
+    public Object encodeDetail(PayloadSize payloadSize) {
+        return "LEGACY_JSON".equals(codec) ? encodeLegacy() : encode();
+    }
+
+    @Benchmark
+    public PhotoBoothDetailResponse decodeDetail() throws Exception {
+        return "LEGACY_JSON".equals(codec)
+                ? objectMapper.readValue(encodedString, PhotoBoothDetailResponse.class)
+                : cacheValueCodec.decode(encoded, PhotoBoothDetailResponse.class);
+    }
+
+    private String encodeLegacy() {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] encode() {
+        CacheCodecType codecType = codec.startsWith("SMILE") ? CacheCodecType.SMILE : CacheCodecType.JSON;
+        int compressThreshold = codec.endsWith("LZ4") ? COMPRESS_THRESHOLD : 0;
+        // PhotoBoothById 는 soft TTL 헤더가 붙음
+        return cacheValueCodec.encode(codecType, compressThreshold, 3600, response, 0);
+    }
+
+    private static PhotoBoothDetailResponse buildResponse(int reviewImageCount) {
+        PhotoBoothApiResponse photoBooth = new PhotoBoothApiResponse("https://cdn.phopa.com/review/2022/10/01/7c9e6679-7425-40de-944b-e07fc1f90ae7.jpg");
+        photoBooth.setId(1834L);
+        photoBooth.setName("인생네컷 홍대점");
+        photoBooth.setJibunAddress("서울 마포구 서교동 358-121");
+        photoBooth.setRoadAddress("서울 마포구 와우산로21길 19-3");
+        photoBooth.setLatitude(37.5523458);
+        photoBooth.setLongitude(126.9236512);
+        photoBooth.setLikeCount(128);
+        photoBooth.setReviewCount(57);
+        photoBooth.setReviewImageCount(143);
+        photoBooth.setStarScore(4.3f);
+        photoBooth.setStatus(Status.ACTIVE);
+
+        List<String> reviewImageList = new ArrayList<>();
+        for (int i = 0; i < reviewImageCount; i++) {
+            reviewImageList.add("https://cdn.phopa.com/review/2022/10/0" + (i + 1) + "/" + UUID.nameUUIDFromBytes(new byte[]{(byte) i}) + ".jpg");
+        }
+
+        Map<TagType, List<PhotoBoothTagResponse>> tagSummary = new EnumMap<>(TagType.class);
+        long tagId = 1;
+        for (TagType tagType : TagType.REVIEW_FORM_TAG_LIST) {
+            List<PhotoBoothTagResponse> tagResponseList = new ArrayList<>();
+            for (int i = 0; i < 6; i++, tagId++) {
+                TagDTO tag = new TagDTO(tagId, tagType.getDesc() + " 태그 " + i, "keyword" + tagId, 320, 1200 - i * 100, 80,
+                        "https://cdn.phopa.com/tag/icon/" + tagId + ".png", tagType);
+                tagResponseList.add(PhotoBoothTagResponse.of(tag, 40 - i * 5));
+            }
+            tagSummary.put(tagType, tagResponseList);
+        }
+        return PhotoBoothDetailResponse.of(photoBooth, false, null, reviewImageList, tagSummary);
+    }
+}
@@ -0,0 +1,107 @@
+package com.hot6.phopa.api.common.service;
+
+import com.hot6.phopa.api.domain.community.service.PostApiService;
+import com.hot6.phopa.api.domain.photobooth.service.PhotoBoothApiService;
+import com.hot6.phopa.api.domain.review.service.ReviewApiService;
+import com.hot6.phopa.core.domain.photobooth.service.PhotoBoothService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 배포 직후 PhotoBoothById (인기 포토부스) 와 태그 form 캐시를 미리 채움
+ * ApplicationReadyEvent listener 가 끝나야 ReadinessState.ACCEPTING_TRAFFIC 이 발행되므로,
+ * warm-up 이 끝나거나 timeout 이 지날 때까지 readiness probe 는 트래픽을 받지 않는 상태로 남음.
+ */
+@Slf4j
+@Component
+public class CacheWarmUpService {
+
+    private final PhotoBoothService photoBoothService;
+
+    private final PhotoBoothApiService photoBoothApiService;
+
+    private final ReviewApiService reviewApiService;
+
+    private final PostApiService postApiService;
+
+    private final boolean enabled;
+
+    private final int photoBoothSize;
+
+    private final int parallelism;
+
+    private final long timeout;
+
+    public CacheWarmUpService(PhotoBoothService photoBoothService,
+                              PhotoBoothApiService photoBoothApiService,
+                              ReviewApiService reviewApiService,
+                              PostApiService postApiService,
+                              @Value("${cache.warm-up.enabled:false}") boolean enabled,
+                              @Value("${cache.warm-up.photo-booth-size:500}") int photoBoothSize,
+                              @Value("${cache.warm-up.parallelism:4}") int parallelism,
+                              @Value("${cache.warm-up.timeout:30000}") long timeout) {
+        this.photoBoothService = photoBoothService;
+        this.photoBoothApiService = photoBoothApiService;
+        this.reviewApiService = reviewApiService;
+        this.postApiService = postApiService;
+        this.enabled = enabled;
+        this.photoBoothSize = photoBoothSize;
+        this.parallelism = parallelism;
+        this.timeout = timeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled == false) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + timeout;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("cache-warm-up-");
+        executor.initialize();
+        List<Future<?>> futureList = new ArrayList<>();
+        try {
+            futureList.add(executor.submit(photoBoothApiService::getFilterData));
+            futureList.add(executor.submit(reviewApiService::getFormData));
+            futureList.add(executor.submit(postApiService::getFilterFormData));
+            futureList.add(executor.submit(postApiService::getFormData));
+            for (Long photoBoothId : photoBoothService.getPopularPhotoBoothIdList(photoBoothSize)) {
+                futureList.add(executor.submit(() -> photoBoothApiService.warmUpPhotoBooth(photoBoothId)));
+            }
+            int failed = 0;
+            for (Future<?> future : futureList) {
+                try {
+                    future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+                } catch (ExecutionException e) {
+                    failed++;
+                }
+            }
+            log.info("cache warm-up finished. tasks : {}, failed : {}, elapsed : {}ms", futureList.size(), failed, System.currentTimeMillis() - start);
+        } catch (TimeoutException e) {
+            long done = futureList.stream().filter(Future::isDone).count();
+            log.warn("cache warm-up timed out. done : {} / {}, elapsed : {}ms", done, futureList.size(), System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // warm-up 실패로 기동을 막지는 않음
+            log.warn("cache warm-up failed.", e);
+        } finally {
+            futureList.forEach(future -> future.cancel(true));
+            executor.shutdown();
+        }
+    }
+}
@@ -78,6 +78,7 @@ public class PostApiDTO {
     @Getter
     @Setter
     @AllArgsConstructor(staticName = "of")
+    @NoArgsConstructor
     public static class PostFilterForm {
         List<TagDTO> brandTagList;
         Map<TagType, List<TagDTO>> personalTagList;
@@ -87,6 +88,7 @@ public class PostApiDTO {
     @Getter
     @Setter
     @AllArgsConstructor(staticName = "of")
+    @NoArgsConstructor
     public static class PostForm {
         Map<TagType, List<TagDTO>> postFormTagList;
     }
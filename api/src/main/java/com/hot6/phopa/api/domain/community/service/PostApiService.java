@@ -2,20 +2,26 @@ package com.hot6.phopa.api.domain.community.service;
 
 import com.hot6.phopa.api.domain.community.model.dto.PostApiDTO.*;
 import com.hot6.phopa.api.domain.community.model.mapper.PostApiMapper;
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
 import com.hot6.phopa.core.common.enumeration.LikeType;
 import com.hot6.phopa.core.common.exception.ApplicationErrorException;
 import com.hot6.phopa.core.common.exception.ApplicationErrorType;
 import com.hot6.phopa.core.common.exception.SilentApplicationErrorException;
 import com.hot6.phopa.core.common.model.dto.PageableParam;
 import com.hot6.phopa.core.common.model.dto.PageableResponse;
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheDependencyType;
+import com.hot6.phopa.core.common.model.type.CacheType;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.service.LikeCountService;
+import com.hot6.phopa.core.common.service.UserLikeService;
 import com.hot6.phopa.core.common.service.S3UploadService;
 import com.hot6.phopa.core.domain.community.enumeration.OrderType;
 import com.hot6.phopa.core.domain.community.model.entity.PostEntity;
 import com.hot6.phopa.core.domain.community.model.entity.PostImageEntity;
-import com.hot6.phopa.core.domain.community.model.entity.PostLikeEntity;
 import com.hot6.phopa.core.domain.community.model.entity.PostTagEntity;
 import com.hot6.phopa.core.domain.community.service.PostService;
+import com.hot6.phopa.core.domain.tag.enumeration.TagFormType;
 import com.hot6.phopa.core.domain.tag.enumeration.TagType;
 import com.hot6.phopa.core.domain.tag.model.dto.TagDTO;
 import com.hot6.phopa.core.domain.tag.model.entity.TagEntity;
@@ -25,6 +31,7 @@ import com.hot6.phopa.core.domain.user.model.dto.UserDTO;
 import com.hot6.phopa.core.domain.user.model.entity.UserEntity;
 import com.hot6.phopa.core.domain.user.service.UserService;
 import com.hot6.phopa.core.security.config.PrincipleDetail;
+import com.hot6.phopa.core.service.RedisCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
@@ -32,6 +39,7 @@ import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -57,6 +65,12 @@ public class PostApiService {
 
     private final TagMapper tagMapper;
 
+    private final RedisCacheService cacheService;
+
+    private final LikeCountService likeCountService;
+
+    private final UserLikeService userLikeService;
+
     @Value("${cloud.aws.s3.upload.path.review}")
     private String reviewPath;
 
@@ -64,6 +78,7 @@ public class PostApiService {
     public PageableResponse<PostApiResponse> getPosts(Long userId, Long photoBoothId, PageableParam pageable) {
         Page<PostEntity> postEntityPage = postService.getPosts(userId, photoBoothId, pageable);
         List<PostApiResponse> postApiResponseList = postApiMapper.toDtoList(postEntityPage.getContent());
+        mergePendingLikeCount(postApiResponseList);
         UserDTO userDTO = PrincipleDetail.get();
         if (userDTO.getId() != null) {
             postApiResponseList = setUserLike(postApiResponseList, userDTO.getId());
@@ -99,8 +114,8 @@ public class PostApiService {
                                 .tag(tagEntity)
                                 .build()
                 );
-                tagEntity.updatePostCount(1);
             }
+            tagService.updatePostCount(tagEntityList.stream().map(TagEntity::getId).collect(Collectors.toSet()), 1);
             postEntity.setPostTagSet(postTagEntitySet);
         }
 
@@ -137,35 +152,27 @@ public class PostApiService {
         }
     }
 
+    // 없는 좋아요 row 를 지울 때 gap lock 을 잡지 않도록 READ COMMITTED 로 실행 (PostService.toggleLike)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public LikeType like(Long postId) {
         UserDTO userDTO = PrincipleDetail.get();
-        UserEntity userEntity = userService.findById(userDTO.getId());
+        if (userDTO.getId() == null) {
+            throw new SilentApplicationErrorException(ApplicationErrorType.UNAUTHORIZED_USER);
+        }
         PostEntity postEntity = postService.getPostById(postId);
-        if (userEntity.getId().equals(postEntity.getUser().getId())) {
+        if (userDTO.getId().equals(postEntity.getUser().getId())) {
             throw new SilentApplicationErrorException(ApplicationErrorType.CANNOT_BE_CREATED_USER);
         }
-        PostLikeEntity postLikeEntity = postService.getPostLikeByPostIdAndUserId(postId, userEntity.getId());
-        if (postLikeEntity != null) {
-            postService.deletePostLikeEntity(postLikeEntity);
-            postEntity.updateLikeCount(-1);
-            return LikeType.UNLIKE;
-        } else {
-            postLikeEntity = PostLikeEntity.builder()
-                    .post(postEntity)
-                    .user(userEntity)
-                    .build();
-            postService.createPostLikeEntity(postLikeEntity);
-            postEntity.updateLikeCount(1);
-            return LikeType.LIKE;
-        }
+        return postService.toggleLike(postId, userDTO.getId());
     }
 
     public PostApiResponse getPost(Long postId) {
         PostApiResponse postApiResponse = postApiMapper.toDto(postService.getPostById(postId));
+        mergePendingLikeCount(Collections.singletonList(postApiResponse));
         UserDTO userDTO = PrincipleDetail.get();
         boolean isLike = false;
         if (userDTO.getId() != null) {
-            isLike = postService.getPostLikeByPostIdAndUserId(postApiResponse.getId(), userDTO.getId()) != null;
+            isLike = userLikeService.isLiked(LikeTargetType.POST, userDTO.getId(), postApiResponse.getId());
         }
         postApiResponse.setLike(isLike);
         return postApiResponse;
@@ -179,6 +186,7 @@ public class PostApiService {
     ) {
         Page<PostEntity> postEntityPage = postService.getPostByTagIdSet(tagIdSet, order, pageable);
         List<PostApiResponse> postApiResponseList = postApiMapper.toDtoList(postEntityPage.getContent());
+        mergePendingLikeCount(postApiResponseList);
         UserDTO userDTO = PrincipleDetail.get();
         if (userDTO.getId() != null) {
             postApiResponseList = setUserLike(postApiResponseList, userDTO.getId());
@@ -187,6 +195,14 @@ public class PostApiService {
     }
 
     public PostFilterForm getFilterFormData() {
+        return cacheService.get(CacheKeyEntity.valueKey(CacheType.TagForm, TagFormType.POST_FILTER).dependsOn(CacheDependencyType.TagCatalogue.key()), this::buildFilterFormData, PostFilterForm.class);
+    }
+
+    public PostForm getFormData() {
+        return cacheService.get(CacheKeyEntity.valueKey(CacheType.TagForm, TagFormType.POST_FORM).dependsOn(CacheDependencyType.TagCatalogue.key()), this::buildFormData, PostForm.class);
+    }
+
+    private PostFilterForm buildFilterFormData() {
         List<TagDTO> tagDTOList = tagMapper.toDtoList(tagService.getTagListByTagTypeList(TagType.POST_TAG_LIST, null));
         List<TagDTO> brandTagList = new ArrayList<>();
         Map<TagType, List<TagDTO>> personalTagList = new HashMap<>();
@@ -207,7 +223,7 @@ public class PostApiService {
         return PostFilterForm.of(brandTagList, personalTagList, conceptTagList, frameTagList);
     }
 
-    public PostForm getFormData() {
+    private PostForm buildFormData() {
         List<TagDTO> tagDTOList = tagMapper.toDtoList(tagService.getTagListByTagTypeList(TagType.POST_TAG_LIST, null));
         Map<TagType, List<TagDTO>> tagTypeListMap = tagDTOList.stream().collect(Collectors.groupingBy(TagDTO::getTagType));
         return PostForm.of(tagTypeListMap);
@@ -280,9 +296,9 @@ public class PostApiService {
             // postEntity에 있지만, request에 없는 tag인 경우 제거
             Set<PostTagEntity> deletePostTagSet = postEntity.getPostTagSet().stream().filter(postTag -> tagIdList.contains(postTag.getTag().getId()) == false).collect(Collectors.toSet());
             for (PostTagEntity postTagEntity : deletePostTagSet) {
-                postTagEntity.getTag().updatePostCount(-1);
                 postEntity.getPostTagSet().remove(postTagEntity);
             }
+            tagService.updatePostCount(deletePostTagSet.stream().map(postTag -> postTag.getTag().getId()).collect(Collectors.toSet()), -1);
             tagEntityList.addAll(tagService.getTagList(newTagIdList));
         }
         if (CollectionUtils.isNotEmpty(newTagKeywordList)) {
@@ -298,8 +314,8 @@ public class PostApiService {
                             .tag(tagEntity)
                             .build()
             );
-            tagEntity.updatePostCount(1);
         }
+        tagService.updatePostCount(tagEntityList.stream().map(TagEntity::getId).collect(Collectors.toSet()), 1);
     }
 
     private List<PostApiResponse> setUserLike(List<PostApiResponse> postApiResponseList, Long userId) {
@@ -308,12 +324,15 @@ public class PostApiService {
                 .map(PostApiResponse::getId)
                 .collect(Collectors.toList());
 
-        List<Long> userLikePostIdList = postService.getPostLikeByPostIdsAndUserId(postIdList, userId)
-                .stream()
-                .map(postLike -> postLike.getPost().getId())
-                .collect(Collectors.toList());
+        Set<Long> userLikePostIdSet = userLikeService.getLikedIdSet(LikeTargetType.POST, userId, postIdList);
 
-        postApiResponseList.forEach(post -> post.setLike(userLikePostIdList.contains(post.getId())));
+        postApiResponseList.forEach(post -> post.setLike(userLikePostIdSet.contains(post.getId())));
         return postApiResponseList;
     }
+
+    // DB 에 아직 반영되지 않은 좋아요 수를 더함
+    private void mergePendingLikeCount(List<PostApiResponse> postApiResponseList) {
+        Map<Long, Integer> pendingLikeCountMap = likeCountService.getPendingDeltaMap(LikeTargetType.POST, postApiResponseList.stream().map(PostApiResponse::getId).collect(Collectors.toList()));
+        postApiResponseList.forEach(post -> post.setLikeCount(post.getLikeCount() + pendingLikeCountMap.getOrDefault(post.getId(), 0)));
+    }
 }
@@ -1,17 +1,25 @@
 package com.hot6.phopa.api.domain.photobooth.controller;
 
 import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothApiResponse;
+import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothChangesResponse;
 import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothDetailResponse;
 import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothFilterFormResponse;
+import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothViewportResponse;
 import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.PhotoBoothWithTagResponse;
 import com.hot6.phopa.api.domain.photobooth.service.PhotoBoothApiService;
+import com.hot6.phopa.api.domain.photobooth.service.PhotoBoothExportApiService;
 import com.hot6.phopa.core.common.model.dto.PageableParam;
 import com.hot6.phopa.core.common.model.dto.PageableResponse;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.domain.photobooth.enumeration.PhotoBoothExportFormat;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.constraints.Positive;
 import java.util.List;
@@ -25,6 +33,8 @@ public class PhotoBoothController {
 
     private final PhotoBoothApiService photoBoothService;
 
+    private final PhotoBoothExportApiService photoBoothExportService;
+
     @GetMapping("/near-by")
     public PageableResponse<PhotoBoothWithTagResponse> getPhotoBoothNearByUserGeo(
             @RequestParam Double latitude,
@@ -48,6 +58,55 @@ public class PhotoBoothController {
         return ResponseEntity.ok(photoBoothService.getPhotoBoothNearByUserGeoCount(latitude, longitude, distance, status, tagIdSet));
     }
 
+    @GetMapping("/nearest")
+    public List<PhotoBoothWithTagResponse> getNearestPhotoBooth(
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(defaultValue = "20") Integer k,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Set<Long> tagIdSet
+    ){
+        return photoBoothService.getNearestPhotoBooth(latitude, longitude, k, status, tagIdSet);
+    }
+
+    @GetMapping("/viewport")
+    public PhotoBoothViewportResponse getPhotoBoothViewport(
+            @RequestParam Double minLatitude,
+            @RequestParam Double minLongitude,
+            @RequestParam Double maxLatitude,
+            @RequestParam Double maxLongitude,
+            @RequestParam Integer level
+    ){
+        return photoBoothService.getPhotoBoothViewport(minLatitude, minLongitude, maxLatitude, maxLongitude, level);
+    }
+
+    @GetMapping("/changes")
+    public PhotoBoothChangesResponse getPhotoBoothChanges(
+            @RequestParam(defaultValue = "0") Long since,
+            @RequestParam(defaultValue = "0") Long lastId,
+            @RequestParam(defaultValue = "500") Integer size
+    ){
+        return photoBoothService.getPhotoBoothChanges(since, lastId, size);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.ALL_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPhotoBooth(
+            @RequestParam(defaultValue = "NDJSON") PhotoBoothExportFormat format,
+            WebRequest webRequest
+    ){
+        long catalogueVersion = photoBoothExportService.getCatalogueVersion();
+        String eTag = photoBoothExportService.getETag(catalogueVersion, format);
+        // 응답 헤더의 ETag 는 checkNotModified 에서 같이 세팅됨
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"photo-booth-" + catalogueVersion + "." + format.getExtension() + "\"")
+                .body(photoBoothExportService.export(format));
+    }
+
     @GetMapping("/{photoBoothId}")
     public PhotoBoothDetailResponse getPhotoBooth(
             @PathVariable @Positive Long photoBoothId,
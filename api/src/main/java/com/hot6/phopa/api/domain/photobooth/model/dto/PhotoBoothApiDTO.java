@@ -3,6 +3,8 @@ package com.hot6.phopa.api.domain.photobooth.model.dto;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.hot6.phopa.api.domain.review.model.dto.ReviewApiDTO.ReviewApiResponse;
+import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothClusterDTO;
 import com.hot6.phopa.core.domain.photobooth.model.dto.PhotoBoothDTO;
 import com.hot6.phopa.core.domain.tag.enumeration.TagType;
 import com.hot6.phopa.core.domain.tag.model.dto.TagDTO;
@@ -47,11 +49,44 @@ public class PhotoBoothApiDTO {
     @Getter
     @Setter
     @AllArgsConstructor(staticName = "of")
+    @NoArgsConstructor
     public static class PhotoBoothFilterFormResponse {
         List<TagDTO> brandTagList;
         List<TagDTO> tagList;
     }
 
+    @Getter
+    @Setter
+    @AllArgsConstructor(staticName = "of")
+    @NoArgsConstructor
+    public static class PhotoBoothViewportResponse{
+        // cluster level 이면 clusterList, 아니면 photoBoothList 만 채워짐
+        List<PhotoBoothClusterDTO> clusterList;
+        List<PhotoBoothApiResponse> photoBoothList;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor(staticName = "of")
+    @NoArgsConstructor
+    public static class PhotoBoothChangeResponse{
+        PhotoBoothApiResponse photoBooth;
+        // INACTIVE 면 앱에서 지움
+        Status status;
+        Long version;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor(staticName = "of")
+    @NoArgsConstructor
+    public static class PhotoBoothChangesResponse{
+        List<PhotoBoothChangeResponse> changeList;
+        Long nextSince;
+        Long nextLastId;
+        boolean hasNext;
+    }
+
     @Getter
     @Setter
     @AllArgsConstructor(staticName = "of")
@@ -2,35 +2,47 @@ package com.hot6.phopa.api.domain.photobooth.service;
 
 import com.hot6.phopa.api.domain.photobooth.model.dto.PhotoBoothApiDTO.*;
 import com.hot6.phopa.api.domain.photobooth.model.mapper.PhotoBoothApiMapper;
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
 import com.hot6.phopa.core.common.enumeration.LikeType;
+import com.hot6.phopa.core.common.exception.ApplicationErrorType;
+import com.hot6.phopa.core.common.exception.SilentApplicationErrorException;
 import com.hot6.phopa.core.common.model.dto.PageableParam;
 import com.hot6.phopa.core.common.model.dto.PageableResponse;
 import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheDependencyType;
 import com.hot6.phopa.core.common.model.type.CacheType;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.service.LikeCountService;
+import com.hot6.phopa.core.common.service.UserLikeService;
+import com.hot6.phopa.core.common.utils.GeoBoundary;
 import com.hot6.phopa.core.common.utils.GeometryUtil;
 import com.hot6.phopa.core.common.utils.S3UrlUtil;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothDistanceDTO;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothNativeQueryDTO;
 import com.hot6.phopa.core.domain.photobooth.model.dto.PhotoBoothWithDistanceDTO;
 import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
-import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothLikeEntity;
+import com.hot6.phopa.core.domain.photobooth.service.PhotoBoothNearByCacheService;
 import com.hot6.phopa.core.domain.photobooth.service.PhotoBoothService;
+import com.hot6.phopa.core.domain.photobooth.service.PhotoBoothVersionService;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewImageEntity;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewTagEntity;
 import com.hot6.phopa.core.domain.review.service.ReviewService;
+import com.hot6.phopa.core.domain.tag.enumeration.TagFormType;
 import com.hot6.phopa.core.domain.tag.enumeration.TagType;
 import com.hot6.phopa.core.domain.tag.model.dto.TagDTO;
 import com.hot6.phopa.core.domain.tag.model.entity.TagEntity;
 import com.hot6.phopa.core.domain.tag.model.mapper.TagMapper;
 import com.hot6.phopa.core.domain.tag.service.TagService;
 import com.hot6.phopa.core.domain.user.model.dto.UserDTO;
-import com.hot6.phopa.core.domain.user.model.entity.UserEntity;
-import com.hot6.phopa.core.domain.user.service.UserService;
 import com.hot6.phopa.core.security.config.PrincipleDetail;
 import com.hot6.phopa.core.service.RedisCacheService;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
@@ -41,30 +53,99 @@ import java.util.stream.Collectors;
 @Transactional
 public class PhotoBoothApiService {
 
+    private static final int MAX_CHANGES_SIZE = 1000;
+
     private final PhotoBoothService photoBoothService;
     private final PhotoBoothApiMapper photoBoothMapper;
     private final TagService tagService;
     private final TagMapper tagMapper;
     private final ReviewService reviewService;
-    private final UserService userService;
 
     private final RedisCacheService cacheService;
 
+    private final PhotoBoothNearByCacheService photoBoothNearByCacheService;
+
+    private final PhotoBoothVersionService photoBoothVersionService;
+
+    private final LikeCountService likeCountService;
+
+    private final UserLikeService userLikeService;
+
     public PageableResponse<PhotoBoothWithTagResponse> getPhotoBoothNearByUserGeo(Double latitude, Double longitude, Double distance, Status status, Set<Long> tagIdSet, PageableParam pageable) {
         UserDTO userDTO = PrincipleDetail.get();
-        UserEntity userEntity = userDTO.getId() != null ? userService.findById(userDTO.getId()) : null;
-        PhotoBoothWithDistanceDTO photoBoothWithDistanceDTO = photoBoothService.getPhotoBoothNearByUserGeo(latitude, longitude, distance, status, tagIdSet, pageable);
+        PhotoBoothWithDistanceDTO photoBoothWithDistanceDTO = photoBoothNearByCacheService.isCacheable(distance)
+                ? getPhotoBoothNearByUserGeoFromCache(latitude, longitude, distance, status, tagIdSet, pageable)
+                : photoBoothService.getPhotoBoothNearByUserGeo(latitude, longitude, distance, status, tagIdSet, pageable);
         Page<PhotoBoothEntity> photoBoothEntityPage = photoBoothWithDistanceDTO.getPhotoBoothEntityPage();
         Map<Long, Double> photoBoothIdDistanceMap = photoBoothWithDistanceDTO.getPhotoBoothIdDistanceMap();
-        List<Long> photoBoothIdList = photoBoothEntityPage.getContent().stream().map(PhotoBoothEntity::getId).collect(Collectors.toList());
-        Map<Long, List<PhotoBoothLikeEntity>> userLikePhotoBoothIdMap = userEntity != null ? photoBoothService.getPhotoBoothLikeByPhotoBoothIdListAndUserId(photoBoothIdList, userEntity.getId()).stream().collect(Collectors.groupingBy(photoBoothLikeEntity -> photoBoothLikeEntity.getPhotoBooth().getId())) : new HashMap<>();
+        List<PhotoBoothWithTagResponse> photoBoothWithTagResponseList = buildPhotoBoothWithTagResponseList(photoBoothEntityPage.getContent(), photoBoothIdDistanceMap, userDTO.getId());
+        return PageableResponse.makeResponse(photoBoothEntityPage, photoBoothWithTagResponseList);
+    }
+
+    public List<PhotoBoothWithTagResponse> getNearestPhotoBooth(Double latitude, Double longitude, Integer k, Status status, Set<Long> tagIdSet) {
+        UserDTO userDTO = PrincipleDetail.get();
+        List<PhotoBoothNativeQueryDTO> photoBoothNativeQueryDTOList = photoBoothService.getNearestPhotoBooth(latitude, longitude, k, status, tagIdSet);
+        Map<Long, Double> photoBoothIdDistanceMap = photoBoothNativeQueryDTOList.stream().collect(Collectors.toMap(PhotoBoothNativeQueryDTO::getId, PhotoBoothNativeQueryDTO::getDistance));
+        List<PhotoBoothEntity> photoBoothEntityList = photoBoothService.getPhotoBoothListByIdList(photoBoothNativeQueryDTOList.stream().map(PhotoBoothNativeQueryDTO::getId).collect(Collectors.toList()));
+        return buildPhotoBoothWithTagResponseList(photoBoothEntityList, photoBoothIdDistanceMap, userDTO.getId());
+    }
+
+    public PhotoBoothViewportResponse getPhotoBoothViewport(Double minLatitude, Double minLongitude, Double maxLatitude, Double maxLongitude, Integer level) {
+        if (minLatitude >= maxLatitude || minLongitude >= maxLongitude) {
+            throw new SilentApplicationErrorException(ApplicationErrorType.INVALID_REQUEST);
+        }
+        GeoBoundary boundary = GeoBoundary.of(minLatitude, maxLatitude, minLongitude, maxLongitude);
+        if (photoBoothService.isClusterLevel(level)) {
+            return PhotoBoothViewportResponse.of(photoBoothService.getPhotoBoothCluster(boundary, level), null);
+        }
+        return PhotoBoothViewportResponse.of(null, photoBoothMapper.toDtoList(photoBoothService.getPhotoBoothByBoundary(boundary)));
+    }
+
+    /**
+     * (since, lastId) 이후 바뀐 포토부스. 응답의 nextSince, nextLastId 로 다음 요청을 보냄.
+     */
+    public PhotoBoothChangesResponse getPhotoBoothChanges(Long since, Long lastId, Integer size) {
+        if (size < 1 || size > MAX_CHANGES_SIZE) {
+            throw new SilentApplicationErrorException(ApplicationErrorType.INVALID_REQUEST);
+        }
+        List<PhotoBoothEntity> photoBoothEntityList = photoBoothVersionService.getChangedPhotoBoothList(since, lastId, size + 1);
+        boolean hasNext = photoBoothEntityList.size() > size;
+        if (hasNext) {
+            photoBoothEntityList = photoBoothEntityList.subList(0, size);
+        }
+        List<PhotoBoothChangeResponse> changeList = photoBoothEntityList.stream()
+                .map(photoBoothEntity -> PhotoBoothChangeResponse.of(photoBoothMapper.toDto(photoBoothEntity), photoBoothEntity.getStatus(), photoBoothEntity.getVersion()))
+                .collect(Collectors.toList());
+        PhotoBoothEntity last = photoBoothEntityList.isEmpty() ? null : photoBoothEntityList.get(photoBoothEntityList.size() - 1);
+        return PhotoBoothChangesResponse.of(changeList, last != null ? last.getVersion() : since, last != null ? last.getId() : lastId, hasNext);
+    }
+
+    private List<PhotoBoothWithTagResponse> buildPhotoBoothWithTagResponseList(List<PhotoBoothEntity> photoBoothEntityList, Map<Long, Double> photoBoothIdDistanceMap, Long userId) {
+        List<Long> photoBoothIdList = photoBoothEntityList.stream().map(PhotoBoothEntity::getId).collect(Collectors.toList());
+        Set<Long> userLikePhotoBoothIdSet = userLikeService.getLikedIdSet(LikeTargetType.PHOTO_BOOTH, userId, photoBoothIdList);
+        Map<Long, Integer> pendingLikeCountMap = likeCountService.getPendingDeltaMap(LikeTargetType.PHOTO_BOOTH, photoBoothIdList);
         List<PhotoBoothWithTagResponse> photoBoothWithTagResponseList = new ArrayList<>();
-        for (PhotoBoothEntity photoBoothEntity : photoBoothEntityPage.getContent()) {
+        for (PhotoBoothEntity photoBoothEntity : photoBoothEntityList) {
             Set<TagEntity> tagEntitySet = photoBoothEntity.getReviewSet().stream().flatMap(r -> r.getReviewTagSet().stream().map(ReviewTagEntity::getTag)).collect(Collectors.toSet());
-            boolean isLike = userLikePhotoBoothIdMap.containsKey(photoBoothEntity.getId());
-            photoBoothWithTagResponseList.add(buildPhotoBoothWithTagResponse(photoBoothEntity, tagEntitySet, isLike, photoBoothIdDistanceMap.get(photoBoothEntity.getId())));
+            boolean isLike = userLikePhotoBoothIdSet.contains(photoBoothEntity.getId());
+            PhotoBoothWithTagResponse photoBoothWithTagResponse = buildPhotoBoothWithTagResponse(photoBoothEntity, tagEntitySet, isLike, photoBoothIdDistanceMap.get(photoBoothEntity.getId()));
+            PhotoBoothApiResponse photoBooth = photoBoothWithTagResponse.getPhotoBooth();
+            photoBooth.setLikeCount(photoBooth.getLikeCount() + pendingLikeCountMap.getOrDefault(photoBooth.getId(), 0));
+            photoBoothWithTagResponseList.add(photoBoothWithTagResponse);
         }
-        return PageableResponse.makeResponse(photoBoothEntityPage, photoBoothWithTagResponseList);
+        return photoBoothWithTagResponseList;
+    }
+
+    // 캐싱된 거리순 id 목록에서 요청 페이지만 잘라 조회
+    private PhotoBoothWithDistanceDTO getPhotoBoothNearByUserGeoFromCache(Double latitude, Double longitude, Double distance, Status status, Set<Long> tagIdSet, PageableParam pageable) {
+        List<PhotoBoothDistanceDTO> photoBoothDistanceDTOList = photoBoothNearByCacheService.getNearByList(latitude, longitude, distance, status, tagIdSet);
+        int fromIndex = Math.min(pageable.getOffset(), photoBoothDistanceDTOList.size());
+        int toIndex = Math.min(fromIndex + pageable.getPageSize(), photoBoothDistanceDTOList.size());
+        List<PhotoBoothDistanceDTO> pagePhotoBoothDistanceDTOList = photoBoothDistanceDTOList.subList(fromIndex, toIndex);
+        Map<Long, Double> photoBoothIdDistanceMap = pagePhotoBoothDistanceDTOList.stream().collect(Collectors.toMap(PhotoBoothDistanceDTO::getId, PhotoBoothDistanceDTO::getDistance));
+        List<PhotoBoothEntity> photoBoothEntityList = photoBoothService.getPhotoBoothListByIdList(pagePhotoBoothDistanceDTOList.stream().map(PhotoBoothDistanceDTO::getId).collect(Collectors.toList()));
+        Page<PhotoBoothEntity> photoBoothEntityPage = new PageImpl<>(photoBoothEntityList, PageRequest.of(pageable.getPage(), pageable.getPageSize()), photoBoothDistanceDTOList.size());
+        return PhotoBoothWithDistanceDTO.of(photoBoothIdDistanceMap, photoBoothEntityPage);
     }
 
     public List<PhotoBoothApiResponse> kakaoMapTest(String keyword, Double latitude, Double longitude, Double distance) {
@@ -73,27 +154,29 @@ public class PhotoBoothApiService {
         return photoBoothMapper.toDtoList(photoBoothEntityList);
     }
 
+    // 없는 좋아요 row 를 지울 때 gap lock 을 잡지 않도록 READ COMMITTED 로 실행 (PhotoBoothService.toggleLike)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public LikeType like(Long photoBoothId) {
         UserDTO userDTO = PrincipleDetail.get();
-        UserEntity userEntity = userDTO.getId() != null ? userService.findById(userDTO.getId()) : null;
-        PhotoBoothEntity photoBoothEntity = photoBoothService.getPhotoBoothById(photoBoothId);
-        PhotoBoothLikeEntity photoBoothLikeEntity = photoBoothService.getPhotoBoothLikeByPhotoBoothIdAndUserId(photoBoothId, userEntity.getId());
-        if (photoBoothLikeEntity != null) {
-            photoBoothService.deletePhotoBoothLikeEntity(photoBoothLikeEntity);
-            photoBoothEntity.updateLikeCount(-1);
-            return LikeType.UNLIKE;
-        } else {
-            photoBoothLikeEntity = PhotoBoothLikeEntity.builder()
-                    .photoBooth(photoBoothEntity)
-                    .user(userEntity)
-                    .build();
-            photoBoothService.createPhotoBoothLikeEntity(photoBoothLikeEntity);
-            photoBoothEntity.updateLikeCount(1);
-            return LikeType.LIKE;
+        if (userDTO.getId() == null) {
+            throw new SilentApplicationErrorException(ApplicationErrorType.UNAUTHORIZED_USER);
         }
+        return photoBoothService.toggleLike(photoBoothId, userDTO.getId());
     }
 
     public PhotoBoothFilterFormResponse getFilterData() {
+        return cacheService.get(CacheKeyEntity.valueKey(CacheType.TagForm, TagFormType.PHOTO_BOOTH_FILTER).dependsOn(CacheDependencyType.TagCatalogue.key()), this::buildFilterData, PhotoBoothFilterFormResponse.class);
+    }
+
+    /**
+     * 캐시 warm-up 용, 이미 캐시에 있으면 아무것도 하지 않음
+     */
+    public void warmUpPhotoBooth(Long photoBoothId) {
+        CacheKeyEntity key = photoBoothDetailKey(photoBoothId);
+        cacheService.get(key, () -> getPhotoBoothDetailResponse(key, photoBoothId), PhotoBoothDetailResponse.class);
+    }
+
+    private PhotoBoothFilterFormResponse buildFilterData() {
         List<TagDTO> tagDTOList = tagMapper.toDtoList(tagService.getTagListByTagTypeList(TagType.PHOTO_BOOTH_FILTER_TAG_LIST, true));
         List<TagDTO> brandTagDTOList = tagDTOList.stream().filter(tag -> TagType.BRAND.equals(tag.getTagType())).sorted(Comparator.comparingLong(TagDTO::getId)).collect(Collectors.toList());
         tagDTOList.removeAll(brandTagDTOList);
@@ -101,16 +184,16 @@ public class PhotoBoothApiService {
     }
 
     public PhotoBoothDetailResponse getPhotoBooth(Long photoBoothId, Double latitude, Double longitude) {
-        PhotoBoothDetailResponse photoBoothDetailResponse = cacheService.get(CacheKeyEntity.valueKey(CacheType.PhotoBoothById, photoBoothId),
-                () -> getPhotoBoothDetailResponse(photoBoothId), PhotoBoothDetailResponse.class);
+        CacheKeyEntity key = photoBoothDetailKey(photoBoothId);
+        PhotoBoothDetailResponse photoBoothDetailResponse = cacheService.get(key, () -> getPhotoBoothDetailResponse(key, photoBoothId), PhotoBoothDetailResponse.class);
         PhotoBoothApiResponse photoBooth = photoBoothDetailResponse.getPhotoBooth();
         Double distance = latitude != null && longitude != null ? GeometryUtil.distance(photoBooth.getLatitude(), photoBooth.getLongitude(), latitude, longitude) : null;
         photoBoothDetailResponse.setDistance(distance);
+        // 캐시에는 DB 에 반영된 값만 들어 있으므로 아직 반영되지 않은 좋아요 수는 조회할 때 더함
+        photoBooth.setLikeCount(photoBooth.getLikeCount() + likeCountService.getPendingDelta(LikeTargetType.PHOTO_BOOTH, photoBooth.getId()));
         UserDTO userDTO = PrincipleDetail.get();
         if (userDTO.getId() != null) {
-            UserEntity userEntity = userService.findById(userDTO.getId());
-            boolean isLike = userEntity != null && photoBoothService.getPhotoBoothLikeByPhotoBoothIdAndUserId(photoBooth.getId(), userEntity.getId()) != null;
-            photoBoothDetailResponse.setLike(isLike);
+            photoBoothDetailResponse.setLike(userLikeService.isLiked(LikeTargetType.PHOTO_BOOTH, userDTO.getId(), photoBooth.getId()));
         }
         return photoBoothDetailResponse;
     }
@@ -141,10 +224,16 @@ public class PhotoBoothApiService {
         return PhotoBoothDetailResponse.of(photoBooth, isLike, distance, reviewImageUrlList, tagSummary);
     }
 
-    private PhotoBoothDetailResponse getPhotoBoothDetailResponse(Long photoBoothId) {
+    private CacheKeyEntity photoBoothDetailKey(Long photoBoothId) {
+        return CacheKeyEntity.valueKey(CacheType.PhotoBoothById, photoBoothId).dependsOn(CacheDependencyType.PhotoBooth.key(photoBoothId));
+    }
+
+    // tag summary 에 들어간 태그의 리뷰 수가 바뀌어도 다시 만들어지도록 태그 의존성을 추가함
+    private PhotoBoothDetailResponse getPhotoBoothDetailResponse(CacheKeyEntity key, Long photoBoothId) {
         PhotoBoothEntity photoBoothEntity = photoBoothService.getPhotoBooth(photoBoothId);
         List<ReviewImageEntity> reviewImageEntityList = reviewService.getReviewImageByPhotoBoothId(photoBoothEntity.getId(), 8);
         List<TagEntity> tagEntity = tagService.getTagByPhotoBoothId(photoBoothEntity.getId(), TagType.REVIEW_FORM_TAG_LIST);
+        key.dependsOn(tagEntity.stream().map(tag -> CacheDependencyType.Tag.key(tag.getId())).collect(Collectors.toList()));
         return buildPhotoBoothDetailResponse(photoBoothEntity, false, null, reviewImageEntityList, tagEntity);
     }
 }
@@ -0,0 +1,132 @@
+package com.hot6.phopa.api.domain.photobooth.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothExportDTO;
+import com.hot6.phopa.core.domain.photobooth.enumeration.PhotoBoothExportFormat;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothExportRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 전체 포토부스 카탈로그를 gzip 된 NDJSON / GeoJSON 으로 내려줌
+ * row 를 읽는 대로 바로 써서 포토부스 수와 상관없이 메모리 사용량이 일정함.
+ */
+@Service
+@RequiredArgsConstructor
+public class PhotoBoothExportApiService {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final PhotoBoothExportRepository photoBoothExportRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public long getCatalogueVersion() {
+        return photoBoothExportRepository.getCatalogueVersion();
+    }
+
+    /**
+     * 카탈로그 버전이 같아도 body 가 byte 단위로 같다고 보장할 수 없어서 weak ETag 로 사용.
+     * COUNTER 변경(좋아요 수 등)은 모였다가 버전이 올라가고(counter-flush-interval), 버전은 stream 밖에서 읽어서
+     * 그 사이 commit 된 변경은 이전 버전의 ETag 로 나갈 수 있음. 이런 변경은 다음 버전에서 다시 내려감.
+     */
+    public String getETag(long catalogueVersion, PhotoBoothExportFormat format) {
+        return "W/\"photo-booth-" + catalogueVersion + "-" + format.getExtension() + "\"";
+    }
+
+    public StreamingResponseBody export(PhotoBoothExportFormat format) {
+        return outputStream -> {
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator((OutputStream) gzipOutputStream)) {
+                if (PhotoBoothExportFormat.GEOJSON.equals(format)) {
+                    writeGeoJson(generator);
+                } else {
+                    writeNdJson(generator);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void writeNdJson(JsonGenerator generator) throws IOException {
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        photoBoothExportRepository.streamAll(photoBooth -> write(() -> {
+            generator.writeStartObject();
+            generator.writeNumberField("id", photoBooth.getId());
+            generator.writeNumberField("latitude", photoBooth.getLatitude());
+            generator.writeNumberField("longitude", photoBooth.getLongitude());
+            writeProperties(generator, photoBooth);
+            generator.writeEndObject();
+        }));
+        generator.writeRaw('\n');
+    }
+
+    private void writeGeoJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "FeatureCollection");
+        generator.writeArrayFieldStart("features");
+        photoBoothExportRepository.streamAll(photoBooth -> write(() -> {
+            generator.writeStartObject();
+            generator.writeStringField("type", "Feature");
+            generator.writeNumberField("id", photoBooth.getId());
+            generator.writeObjectFieldStart("geometry");
+            generator.writeStringField("type", "Point");
+            // GeoJSON 좌표 순서는 [경도, 위도]
+            generator.writeArrayFieldStart("coordinates");
+            generator.writeNumber(photoBooth.getLongitude());
+            generator.writeNumber(photoBooth.getLatitude());
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("properties");
+            writeProperties(generator, photoBooth);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }));
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeProperties(JsonGenerator generator, PhotoBoothExportDTO photoBooth) throws IOException {
+        generator.writeStringField("name", photoBooth.getName());
+        generator.writeStringField("jibunAddress", photoBooth.getJibunAddress());
+        generator.writeStringField("roadAddress", photoBooth.getRoadAddress());
+        writeNullableNumberField(generator, "likeCount", photoBooth.getLikeCount());
+        writeNullableNumberField(generator, "reviewCount", photoBooth.getReviewCount());
+        writeNullableNumberField(generator, "starScore", photoBooth.getStarScore());
+        writeNullableNumberField(generator, "tagId", photoBooth.getTagId());
+        generator.writeNumberField("version", photoBooth.getVersion());
+    }
+
+    private void writeNullableNumberField(JsonGenerator generator, String fieldName, Number value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(fieldName);
+        } else if (value instanceof Float) {
+            generator.writeNumberField(fieldName, value.floatValue());
+        } else {
+            generator.writeNumberField(fieldName, value.longValue());
+        }
+    }
+
+    // JDBC callback 안에서는 checked exception 을 던질 수 없어서 감싸서 밖에서 다시 풀어줌
+    private void write(IOWriter writer) {
+        try {
+            writer.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOWriter {
+        void write() throws IOException;
+    }
+}
@@ -80,6 +80,7 @@ public class ReviewApiDTO {
     @Getter
     @Setter
     @AllArgsConstructor(staticName = "of")
+    @NoArgsConstructor
     public static class ReviewFormResponse {
         Map<TagType, List<TagDTO>> reviewTagMap;
     }
@@ -2,6 +2,7 @@ package com.hot6.phopa.api.domain.review.service;
 
 import com.hot6.phopa.api.domain.review.model.dto.ReviewApiDTO.*;
 import com.hot6.phopa.api.domain.review.model.mapper.ReviewApiMapper;
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
 import com.hot6.phopa.core.common.enumeration.LikeType;
 import com.hot6.phopa.core.common.exception.ApplicationErrorException;
 import com.hot6.phopa.core.common.exception.ApplicationErrorType;
@@ -9,16 +10,20 @@ import com.hot6.phopa.core.common.exception.SilentApplicationErrorException;
 import com.hot6.phopa.core.common.model.dto.PageableParam;
 import com.hot6.phopa.core.common.model.dto.PageableResponse;
 import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheDependencyType;
 import com.hot6.phopa.core.common.model.type.CacheType;
 import com.hot6.phopa.core.common.model.type.Status;
 import com.hot6.phopa.core.common.service.S3UploadService;
+import com.hot6.phopa.core.common.service.UserLikeService;
 import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
+import com.hot6.phopa.core.domain.photobooth.enumeration.PhotoBoothChangeType;
 import com.hot6.phopa.core.domain.photobooth.service.PhotoBoothService;
+import com.hot6.phopa.core.domain.photobooth.service.PhotoBoothVersionService;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewEntity;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewImageEntity;
-import com.hot6.phopa.core.domain.review.model.entity.ReviewImageLikeEntity;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewTagEntity;
 import com.hot6.phopa.core.domain.review.service.ReviewService;
+import com.hot6.phopa.core.domain.tag.enumeration.TagFormType;
 import com.hot6.phopa.core.domain.tag.enumeration.TagType;
 import com.hot6.phopa.core.domain.tag.model.dto.TagDTO;
 import com.hot6.phopa.core.domain.tag.model.entity.TagEntity;
@@ -28,14 +33,17 @@ import com.hot6.phopa.core.domain.user.model.dto.UserDTO;
 import com.hot6.phopa.core.domain.user.model.entity.UserEntity;
 import com.hot6.phopa.core.domain.user.service.UserService;
 import com.hot6.phopa.core.security.config.PrincipleDetail;
+import com.hot6.phopa.core.service.CacheInvalidationEvent;
 import com.hot6.phopa.core.service.RedisCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -53,6 +61,8 @@ public class ReviewApiService {
 
     private final PhotoBoothService photoBoothService;
 
+    private final PhotoBoothVersionService photoBoothVersionService;
+
     private final ReviewApiMapper reviewApiMapper;
 
     private final S3UploadService s3UploadService;
@@ -65,6 +75,10 @@ public class ReviewApiService {
 
     private final RedisCacheService cacheService;
 
+    private final UserLikeService userLikeService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     @Value("${cloud.aws.s3.upload.path.review}")
     private String reviewPath;
 
@@ -98,17 +112,15 @@ public class ReviewApiService {
                                 .photoBoothId(photoBoothEntity.getId())
                                 .build()
                 );
-                tagEntity.updateReviewCount(1);
             }
             reviewEntity.setReviewTagSet(reviewTagEntitySet);
-            tagEntityList.forEach(tagEntity -> {
-                if(CollectionUtils.isEmpty(tagEntity.getReviewTagSet()) || (tagEntity.getReviewTagSet().stream().anyMatch(r -> r.getReview().getPhotoBooth().getId().equals(photoBoothEntity.getId())) == false)){
-                    tagEntity.updatePhotoBoothCount(1);
-                }
-            });
-            photoBoothEntity.updateReviewCount(1);
-            photoBoothEntity.updateStarScore(photoBoothEntity.getTotalStarScore() + reviewEntity.getStarScore());
+            tagService.updateReviewCount(tagEntityList.stream().map(TagEntity::getId).collect(Collectors.toSet()), 1);
+            tagService.updatePhotoBoothCount(tagEntityList.stream()
+                    .filter(tagEntity -> CollectionUtils.isEmpty(tagEntity.getReviewTagSet()) || (tagEntity.getReviewTagSet().stream().anyMatch(r -> r.getReview().getPhotoBooth().getId().equals(photoBoothEntity.getId())) == false))
+                    .map(TagEntity::getId)
+                    .collect(Collectors.toSet()), 1);
         }
+        photoBoothService.updateReviewCount(photoBoothEntity.getId(), 1, reviewEntity.getStarScore());
 
         if (CollectionUtils.isNotEmpty(reviewImageList)) {
             Set<ReviewImageEntity> reviewImageEntitySet = new HashSet<>();
@@ -132,9 +144,12 @@ public class ReviewApiService {
                 log.error(e.getMessage());
             }
             reviewEntity.setReviewImageSet(reviewImageEntitySet);
-            photoBoothEntity.updateReviewImageCount(reviewImageEntitySet.size());
+            photoBoothService.updateReviewImageCount(photoBoothEntity.getId(), reviewImageEntitySet.size());
         }
-        cacheService.del(CacheKeyEntity.valueKey(CacheType.PhotoBoothById, reviewEntity.getPhotoBooth().getId()));
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(CacheDependencyType.PhotoBooth.key(photoBoothEntity.getId())).with(tagDependencyKeys(reviewEntity)));
+        photoBoothService.evictGeoCache(photoBoothEntity.getLatitude(), photoBoothEntity.getLongitude());
+        photoBoothVersionService.markChanged(photoBoothEntity, PhotoBoothChangeType.COUNTER);
+        photoBoothService.refreshTagIndex(photoBoothEntity.getId());
         return reviewApiMapper.toDto(reviewService.createReview(reviewEntity));
     }
 
@@ -149,30 +164,25 @@ public class ReviewApiService {
         }
     }
 
+    // 없는 좋아요 row 를 지울 때 gap lock 을 잡지 않도록 READ COMMITTED 로 실행 (ReviewService.toggleReviewImageLike)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public LikeType like(Long reviewImageId) {
         UserDTO userDTO = PrincipleDetail.get();
-        UserEntity userEntity = userService.findById(userDTO.getId());
+        if (userDTO.getId() == null) {
+            throw new SilentApplicationErrorException(ApplicationErrorType.UNAUTHORIZED_USER);
+        }
         ReviewImageEntity reviewImageEntity = reviewService.getReviewImageById(reviewImageId);
-        if (reviewImageEntity.getReview().getUser().getId().equals(userEntity.getId())) {
+        if (reviewImageEntity.getReview().getUser().getId().equals(userDTO.getId())) {
             throw new SilentApplicationErrorException(ApplicationErrorType.CANNOT_BE_CREATED_USER);
         }
-        ReviewImageLikeEntity reviewImageLikeEntity = reviewService.getReviewImageLikeByReviewImageIdAndUserId(reviewImageEntity.getId(), userEntity.getId());
-        if (reviewImageLikeEntity != null) {
-            reviewService.deleteReviewImageLike(reviewImageLikeEntity);
-            reviewImageEntity.updateLikeCount(-1);
-            return LikeType.UNLIKE;
-        } else {
-            reviewImageLikeEntity = ReviewImageLikeEntity.builder()
-                    .reviewImage(reviewImageEntity)
-                    .user(userEntity)
-                    .build();
-            reviewService.createReviewImageLikeEntity(reviewImageLikeEntity);
-            reviewImageEntity.updateLikeCount(1);
-            return LikeType.LIKE;
-        }
+        return reviewService.toggleReviewImageLike(reviewImageId, userDTO.getId());
     }
 
     public ReviewFormResponse getFormData() {
+        return cacheService.get(CacheKeyEntity.valueKey(CacheType.TagForm, TagFormType.REVIEW_FORM).dependsOn(CacheDependencyType.TagCatalogue.key()), this::buildFormData, ReviewFormResponse.class);
+    }
+
+    private ReviewFormResponse buildFormData() {
         List<TagDTO> tagDTOList = tagMapper.toDtoList(tagService.getTagListByTagTypeList(TagType.REVIEW_FORM_TAG_LIST, null));
         Map<TagType, List<TagDTO>> reviewTagMap = tagDTOList.stream().collect(Collectors.groupingBy(TagDTO::getTagType));
         return ReviewFormResponse.of(reviewTagMap);
@@ -198,11 +208,12 @@ public class ReviewApiService {
         if (photoBoothEntity.getReviewImage() != null && reviewEntity.getReviewImageSet().contains(photoBoothEntity.getReviewImage())) {
             reviewEntity.getPhotoBooth().updateReviewImage(null);
         }
-        photoBoothEntity.updateReviewCount(-1);
-        photoBoothEntity.updateReviewImageCount(reviewEntity.getReviewImageSet().size() * 1);
-        photoBoothEntity.updateStarScore(photoBoothEntity.getTotalStarScore() - reviewEntity.getStarScore());
+        photoBoothService.updateReviewCount(photoBoothEntity.getId(), -1, -reviewEntity.getStarScore());
+        photoBoothService.updateReviewImageCount(photoBoothEntity.getId(), -reviewEntity.getReviewImageSet().size());
         reviewEntity.updateStatus(Status.INACTIVE);
-        cacheService.del(CacheKeyEntity.valueKey(CacheType.PhotoBoothById, reviewEntity.getPhotoBooth().getId()));
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(CacheDependencyType.PhotoBooth.key(photoBoothEntity.getId())));
+        photoBoothService.evictGeoCache(photoBoothEntity.getLatitude(), photoBoothEntity.getLongitude());
+        photoBoothVersionService.markChanged(photoBoothEntity, PhotoBoothChangeType.COUNTER);
     }
 
     public ReviewApiResponse modifyReview(Long reviewId, ReviewUpdateRequest reviewUpdateRequest, List<MultipartFile> reviewImageList) {
@@ -217,25 +228,31 @@ public class ReviewApiService {
         if (reviewEntity.getUser().getId() != userEntity.getId()) {
             throw new SilentApplicationErrorException(ApplicationErrorType.DIFF_USER);
         }
+        // 빠진 태그와 추가된 태그 모두 리뷰 수가 바뀜
+        List<String> changedTagDependencyKeyList = tagDependencyKeys(reviewEntity);
         updateTagList(reviewEntity, reviewUpdateRequest.getTagIdList(), reviewUpdateRequest.getNewTagKeywordList());
+        changedTagDependencyKeyList.addAll(tagDependencyKeys(reviewEntity));
         //이미지 수정되었을 경우, 이전 이미지 지움.
         if (CollectionUtils.isNotEmpty(reviewUpdateRequest.getDeleteImageIdList())) {
             if (photoBoothEntity.getReviewImage() != null && reviewUpdateRequest.getDeleteImageIdList().stream().anyMatch(id -> photoBoothEntity.getReviewImage().getId().equals(id))) {
                 photoBoothEntity.updateReviewImage(null);
             }
             reviewEntity.deleteImage(reviewUpdateRequest.getDeleteImageIdList());
-            photoBoothEntity.updateReviewImageCount(reviewUpdateRequest.getDeleteImageIdList().size() * -1);
+            photoBoothService.updateReviewImageCount(photoBoothEntity.getId(), -reviewUpdateRequest.getDeleteImageIdList().size());
         }
         //수정된 이미지가 있을 경우, 새로 생성.
         if (CollectionUtils.isNotEmpty(reviewImageList)) {
             updateImageList(reviewEntity, reviewImageList);
-            photoBoothEntity.updateReviewImageCount(reviewImageList.size());
+            photoBoothService.updateReviewImageCount(photoBoothEntity.getId(), reviewImageList.size());
             if (photoBoothEntity.getReviewImage() == null) {
                 photoBoothEntity.updateReviewImage(reviewEntity.getReviewImageSet().stream().findFirst().get());
             }
         }
         reviewEntity = setReviewOptionRequest(reviewEntity, photoBoothEntity, reviewUpdateRequest);
-        cacheService.del(CacheKeyEntity.valueKey(CacheType.PhotoBoothById, photoBoothEntity.getId()));
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(CacheDependencyType.PhotoBooth.key(photoBoothEntity.getId())).with(changedTagDependencyKeyList));
+        photoBoothService.evictGeoCache(photoBoothEntity.getLatitude(), photoBoothEntity.getLongitude());
+        photoBoothVersionService.markChanged(photoBoothEntity, PhotoBoothChangeType.COUNTER);
+        photoBoothService.refreshTagIndex(photoBoothEntity.getId());
         return reviewApiMapper.toDto(reviewEntity);
     }
 
@@ -245,8 +262,8 @@ public class ReviewApiService {
         UserDTO userDTO = PrincipleDetail.get();
         if (userDTO.getId() != null) {
             List<Long> reviewImageIdList = reviewImageResponseList.stream().map(ReviewImageResponse::getId).collect(Collectors.toList());
-            List<Long> userLikeReviewImageIdList = reviewService.getReviewImageLikeByReviewIdsAndUserId(reviewImageIdList, userDTO.getId()).stream().map(reviewImageLike -> reviewImageLike.getReviewImage().getId()).collect(Collectors.toList());
-            reviewImageResponseList.stream().forEach(reviewImage -> reviewImage.setLike(userLikeReviewImageIdList.contains(reviewImage.getId())));
+            Set<Long> userLikeReviewImageIdSet = userLikeService.getLikedIdSet(LikeTargetType.REVIEW_IMAGE, userDTO.getId(), reviewImageIdList);
+            reviewImageResponseList.stream().forEach(reviewImage -> reviewImage.setLike(userLikeReviewImageIdSet.contains(reviewImage.getId())));
         }
         return PageableResponse.makeResponse(reviewImageEntityPage, reviewImageResponseList);
     }
@@ -273,6 +290,13 @@ public class ReviewApiService {
         }
     }
 
+    private List<String> tagDependencyKeys(ReviewEntity reviewEntity) {
+        if (CollectionUtils.isEmpty(reviewEntity.getReviewTagSet())) {
+            return new ArrayList<>();
+        }
+        return reviewEntity.getReviewTagSet().stream().map(reviewTag -> CacheDependencyType.Tag.key(reviewTag.getTag().getId())).collect(Collectors.toList());
+    }
+
     private void updateTagList(ReviewEntity reviewEntity, List<Long> tagIdList, List<String> newTagKeywordList) {
         Map<Long, ReviewTagEntity> tagIdReviewTagMap = reviewEntity.getReviewTagSet().stream().collect(Collectors.toMap(reviewTag -> reviewTag.getTag().getId(), Function.identity()));
         List<TagEntity> tagEntityList = new ArrayList<>();
@@ -282,9 +306,9 @@ public class ReviewApiService {
             // reviewEntity에 있지만, request에 없는 tag인 경우 제거
             Set<ReviewTagEntity> deleteReviewTagSet = reviewEntity.getReviewTagSet().stream().filter(postTag -> tagIdList.contains(postTag.getTag().getId()) == false).collect(Collectors.toSet());
             for (ReviewTagEntity reviewTagEntity : deleteReviewTagSet) {
-                reviewTagEntity.getTag().updatePostCount(-1);
                 reviewEntity.getReviewTagSet().remove(reviewTagEntity);
             }
+            tagService.updateReviewCount(deleteReviewTagSet.stream().map(reviewTag -> reviewTag.getTag().getId()).collect(Collectors.toSet()), -1);
             tagEntityList.addAll(tagService.getTagList(newTagIdList));
         }
         if (CollectionUtils.isNotEmpty(newTagKeywordList)) {
@@ -301,8 +325,8 @@ public class ReviewApiService {
                             .photoBoothId(reviewEntity.getPhotoBooth().getId())
                             .build()
             );
-            tagEntity.updateReviewCount(1);
         }
+        tagService.updateReviewCount(tagEntityList.stream().map(TagEntity::getId).collect(Collectors.toSet()), 1);
     }
 
     private ReviewEntity convertToReviewEntity(ReviewCreateRequest reviewCreateRequest, PhotoBoothEntity photoBoothEntity, UserEntity userEntity) {
@@ -320,7 +344,7 @@ public class ReviewApiService {
         Optional.ofNullable(reviewUpdateRequest.getTitle()).ifPresent(title -> reviewEntity.updateTitle(title));
         Optional.ofNullable(reviewUpdateRequest.getContent()).ifPresent(content -> reviewEntity.updateContent(content));
         Optional.ofNullable(reviewUpdateRequest.getStarScore()).ifPresent(starScore -> {
-            photoBoothEntity.updateStarScore(photoBoothEntity.getTotalStarScore() - reviewEntity.getStarScore() + starScore);
+            photoBoothService.updateReviewCount(photoBoothEntity.getId(), 0, starScore - reviewEntity.getStarScore());
             reviewEntity.updateStarScore(starScore);
         });
         return reviewEntity;
@@ -6,12 +6,15 @@ import com.hot6.phopa.api.domain.tag.model.dto.TagApiDTO.TagCreateRequest;
 import com.hot6.phopa.api.domain.tag.model.mapper.TagApiMapper;
 import com.hot6.phopa.core.common.model.dto.PageableParam;
 import com.hot6.phopa.core.common.model.dto.PageableResponse;
+import com.hot6.phopa.core.common.model.type.CacheDependencyType;
 import com.hot6.phopa.core.domain.tag.enumeration.TagType;
 import com.hot6.phopa.core.domain.tag.model.dto.TagDTO;
 import com.hot6.phopa.core.domain.tag.model.entity.TagEntity;
 import com.hot6.phopa.core.domain.tag.model.mapper.TagMapper;
 import com.hot6.phopa.core.domain.tag.service.TagService;
+import com.hot6.phopa.core.service.CacheInvalidationEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
@@ -24,6 +27,7 @@ import java.util.stream.Collectors;
 public class TagApiService {
     private final TagService tagService;
     private final TagApiMapper tagApiMapper;
+    private final ApplicationEventPublisher eventPublisher;
     public PageableResponse<TagApiResponse> getTagByKeyword(String keyword, TagType tagType, PageableParam pageable) {
         Page<TagEntity> tagEntityPage = tagService.getTagByKeyword(keyword, tagType, pageable);
         return PageableResponse.makeResponse(tagEntityPage, tagApiMapper.toDtoList(tagEntityPage.getContent()));
@@ -31,12 +35,15 @@ public class TagApiService {
 
     public TagApiResponse createTag(TagCreateRequest tagCreateRequest) {
         TagEntity tagEntity = tagService.getTagOrCreate(tagCreateRequest.getKeyword(),tagCreateRequest.getTitle(), tagCreateRequest.getTagType());
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(CacheDependencyType.TagCatalogue.key()));
         return tagApiMapper.toDto(tagEntity);
     }
 
     public List<TagApiResponse> createTagList(List<TagCreateRequest> tagCreateRequestList) {
         List<TagEntity> tagEntityList = tagCreateRequestList.stream().map(request -> convertToTagEntity(request)).collect(Collectors.toList());
-        return tagApiMapper.toDtoList(tagService.createAll(tagEntityList));
+        List<TagEntity> savedTagEntityList = tagService.createAll(tagEntityList);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(CacheDependencyType.TagCatalogue.key()));
+        return tagApiMapper.toDtoList(savedTagEntityList);
     }
 
     private TagEntity convertToTagEntity(TagCreateRequest tagCreateRequest){
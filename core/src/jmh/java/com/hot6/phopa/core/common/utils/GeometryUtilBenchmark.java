@@ -0,0 +1,101 @@
+package com.hot6.phopa.core.common.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 GeometryUtil.distance(boxing + 잘못된 단위) 와 배열 기반 거리 계산 비교
+ * ./gradlew :core:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeometryUtilBenchmark {
+
+    private static final double LATITUDE = 37.5665;
+    private static final double LONGITUDE = 126.9780;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] cosLatitudes;
+    private double[] distances;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        latitudes = new double[size];
+        longitudes = new double[size];
+        cosLatitudes = new double[size];
+        distances = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = LATITUDE + (random.nextDouble() - 0.5) * 0.2;
+            longitudes[i] = LONGITUDE + (random.nextDouble() - 0.5) * 0.2;
+            cosLatitudes[i] = Math.cos(Math.toRadians(latitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public void legacyDistance(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(legacyDistance(LATITUDE, LONGITUDE, latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public void scalarHaversine(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(GeometryUtil.haversine(LATITUDE, LONGITUDE, latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] batchHaversine() {
+        GeometryUtil.haversine(LATITUDE, LONGITUDE, latitudes, longitudes, 0, size, distances);
+        return distances;
+    }
+
+    @Benchmark
+    public double[] batchHaversineWithCosLatitude() {
+        GeometryUtil.haversine(LATITUDE, LONGITUDE, latitudes, longitudes, cosLatitudes, 0, size, distances);
+        return distances;
+    }
+
+    @Benchmark
+    public double[] batchEquirectangular() {
+        GeometryUtil.equirectangular(LATITUDE, LONGITUDE, latitudes, longitudes, 0, size, distances);
+        return distances;
+    }
+
+    // 수정 전 GeometryUtil.distance 를 그대로 옮긴 것 (비교용)
+    private static Double legacyDistance(Double lat1, Double lon1, Double lat2, Double lon2) {
+        Double theta = lon1 - lon2;
+        Double dist = sin(toDegree(lat1)) * sin(toDegree(lat2)) + cos(toDegree(lat1)) * cos(toDegree(lat2)) * cos(toDegree(theta));
+        dist = Math.acos(dist);
+        dist = toRadian(dist);
+        dist = dist * 60 * 1.1515;
+        dist = dist * 1.609344;
+        return dist;
+    }
+
+    private static Double toRadian(Double coordinate) {
+        return coordinate * Math.PI / 180.0;
+    }
+
+    private static Double toDegree(Double coordinate) {
+        return coordinate * 180.0 / Math.PI;
+    }
+
+    private static Double sin(Double coordinate) {
+        return Math.sin(coordinate);
+    }
+
+    private static Double cos(Double coordinate) {
+        return Math.cos(coordinate);
+    }
+}
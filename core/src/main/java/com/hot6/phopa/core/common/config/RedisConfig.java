@@ -0,0 +1,52 @@
+package com.hot6.phopa.core.common.config;
+
+import com.hot6.phopa.core.domain.photobooth.index.PhotoBoothIndexSyncService;
+import com.hot6.phopa.core.service.LocalCacheService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@Configuration
+public class RedisConfig {
+
+    // 캐시 값은 CacheValueCodec 으로 직접 직렬화한 byte[] 를 그대로 저장
+    @Bean
+    public RedisTemplate<String, byte[]> byteRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setHashKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        redisTemplate.setHashValueSerializer(RedisSerializer.byteArray());
+        return redisTemplate;
+    }
+
+    @Bean
+    public ReactiveRedisTemplate<String, byte[]> reactiveByteRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        RedisSerializationContext<String, byte[]> serializationContext = RedisSerializationContext.<String, byte[]>newSerializationContext()
+                .key(RedisSerializer.string())
+                .value(RedisSerializer.byteArray())
+                .hashKey(RedisSerializer.string())
+                .hashValue(RedisSerializer.byteArray())
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
+    // 다른 노드의 로컬 캐시 무효화, 포토부스 인덱스 변경 메세지 구독
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory, LocalCacheService localCacheService,
+                                                                       PhotoBoothIndexSyncService photoBoothIndexSyncService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(localCacheService, new ChannelTopic(LocalCacheService.INVALIDATION_CHANNEL));
+        container.addMessageListener(photoBoothIndexSyncService, new ChannelTopic(PhotoBoothIndexSyncService.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hot6.phopa.core.common.enumeration;
+
+import lombok.Getter;
+
+@Getter
+public enum LikeTargetType {
+    PHOTO_BOOTH("photo_booth", "포토부스"),
+    POST("post", "게시글"),
+    REVIEW_IMAGE("review_image", "리뷰 이미지");
+
+    // like_count 컬럼을 가진 테이블
+    private final String tableName;
+    private final String description;
+
+    LikeTargetType(String tableName, String description) {
+        this.tableName = tableName;
+        this.description = description;
+    }
+}
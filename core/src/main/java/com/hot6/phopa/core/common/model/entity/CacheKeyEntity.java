@@ -1,14 +1,20 @@
 package com.hot6.phopa.core.common.model.entity;
 
 import com.hot6.phopa.core.common.model.type.CacheType;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Getter
 @Setter
+// getAll/setAll 에서 Map key 로 씀
+@EqualsAndHashCode
 public class CacheKeyEntity {
     public static final String SEPARATOR = "_";
 
@@ -16,6 +22,9 @@ public class CacheKeyEntity {
     private String valueKey;
     private String hashKey;
     private String hashField;
+    // 이 값이 의존하는 엔티티 (CacheDependencyType.key), 엔티티가 바뀌면 함께 무효화됨
+    @EqualsAndHashCode.Exclude
+    private Set<String> dependencyKeySet = new LinkedHashSet<>();
 
     private CacheKeyEntity(CacheType type) {
         this.type = type;
@@ -62,6 +71,19 @@ public class CacheKeyEntity {
         return this;
     }
 
+    /**
+     * supplier 안에서 불러도 됨 (값을 만들면서 알게 되는 의존 엔티티)
+     */
+    public CacheKeyEntity dependsOn(String... dependencyKeys) {
+        this.dependencyKeySet.addAll(Arrays.asList(dependencyKeys));
+        return this;
+    }
+
+    public CacheKeyEntity dependsOn(Collection<String> dependencyKeys) {
+        this.dependencyKeySet.addAll(dependencyKeys);
+        return this;
+    }
+
     public static CacheKeyEntity make(String hashKey, String cacheKey) {
         boolean isHashOps = StringUtils.isNotEmpty(hashKey);
         String typeString = "";
@@ -0,0 +1,15 @@
+package com.hot6.phopa.core.common.model.type;
+
+import lombok.Getter;
+
+@Getter
+public enum CacheCodecType {
+    JSON("JSON 문자열"),
+    SMILE("Jackson Smile 바이너리, 필드명을 한 번만 쓰고 숫자를 바이너리로 저장"),
+    ;
+    private String description;
+
+    CacheCodecType(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,30 @@
+package com.hot6.phopa.core.common.model.type;
+
+import lombok.Getter;
+
+/**
+ * 캐시 값이 의존하는 엔티티, key(id) 의 Redis set 에 의존하는 캐시 key 들을 모아둠
+ */
+@Getter
+public enum CacheDependencyType {
+    PhotoBooth("photoBooth", "포토부스 (좋아요/리뷰/이미지 수, 별점 등)"),
+    Tag("tag", "태그 (리뷰/게시글/포토부스 수)"),
+    TagCatalogue("tagCatalogue", "태그 목록 전체 (태그로 만드는 form)"),
+    ;
+    private String name;
+    private String description;
+
+    CacheDependencyType(String name, String description) {
+        this.name = name;
+        this.description = description;
+    }
+
+    public String key(Object id) {
+        return "dep:" + name + ":" + id;
+    }
+
+    // id 없이 목록 전체에 의존하는 경우
+    public String key() {
+        return "dep:" + name;
+    }
+}
@@ -7,17 +7,59 @@ import java.util.concurrent.TimeUnit;
 @Getter
 public enum CacheType {
     User("user", 5, TimeUnit.MINUTES, "User ID"),
-    PhotoBoothById("photoBoothById", 1, TimeUnit.DAYS, "User ID");
+    PhotoBoothById("photoBoothById", 1, TimeUnit.DAYS, "User ID", 10000, 60, 3600, CacheCodecType.SMILE, 1024),
+    PhotoBoothCellCount("photoBoothCellCount", 10, TimeUnit.MINUTES, "Cell Key"),
+    // region hash 의 TTL 은 field 를 쓸 때마다 늘어나므로 field 별 나이는 soft TTL 로 제한함 (RedisCacheService.getHashValue)
+    PhotoBoothNearBy("photoBoothNearBy", 15, TimeUnit.MINUTES, "Region Cell Key", 0, 0, 600, CacheCodecType.SMILE, 1024),
+    TagForm("tagForm", 10, TimeUnit.MINUTES, "Tag Form Type", 10, 60, 0, CacheCodecType.JSON, 0),
+    // 없는 id 조회 결과(tombstone), 생성 시 지움
+    PhotoBoothNotFound("photoBoothNotFound", 1, TimeUnit.MINUTES, "Photo Booth ID", 10000, 10, 0, CacheCodecType.JSON, 0),
+    ReviewNotFound("reviewNotFound", 1, TimeUnit.MINUTES, "Review ID", 10000, 10, 0, CacheCodecType.JSON, 0),
+    PostNotFound("postNotFound", 1, TimeUnit.MINUTES, "Post ID", 10000, 10, 0, CacheCodecType.JSON, 0),
+    // DB 에 아직 반영하지 않은 좋아요 수 증감(INCRBY), flush 될 때까지 만료되지 않음
+    LikeCountDelta("likeCountDelta", 0, TimeUnit.SECONDS, "Like Target Type + ID");
 
     private final String name;
     private final long ttl;
     private final TimeUnit timeUnit;
     private final String desc;
+    // 로컬(L1) 캐시 최대 개수, 0 이면 로컬 캐시를 쓰지 않음 (hash 는 hash key 개수)
+    private final long localMaxSize;
+    // 로컬(L1) 캐시 TTL(초), pub/sub 무효화가 유실돼도 이 시간 이상 stale 하지 않음
+    private final long localTtl;
+    // soft TTL(초), 지나면 stale 값을 바로 내려주고 백그라운드에서 다시 만듦. 0 이면 쓰지 않음
+    // hash field 는 백그라운드 갱신 없이 soft TTL 이 지나면 없는 것으로 봄
+    private final long softTtl;
+    private final CacheCodecType codecType;
+    // 직렬화 결과가 이 크기(byte) 이상이면 LZ4 로 압축, 0 이면 압축하지 않음
+    private final int compressThreshold;
 
     CacheType(String name, int ttl, TimeUnit timeUnit, String desc) {
+        this(name, ttl, timeUnit, desc, CacheCodecType.JSON, 0);
+    }
+
+    CacheType(String name, int ttl, TimeUnit timeUnit, String desc, CacheCodecType codecType, int compressThreshold) {
+        this(name, ttl, timeUnit, desc, 0, 0, 0, codecType, compressThreshold);
+    }
+
+    CacheType(String name, int ttl, TimeUnit timeUnit, String desc, long localMaxSize, long localTtl, long softTtl,
+              CacheCodecType codecType, int compressThreshold) {
         this.name = name;
         this.ttl = TimeUnit.SECONDS.convert(ttl, timeUnit);
         this.timeUnit = timeUnit;
         this.desc = desc;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.softTtl = softTtl;
+        this.codecType = codecType;
+        this.compressThreshold = compressThreshold;
+    }
+
+    public boolean isLocalCacheable() {
+        return localMaxSize > 0 && localTtl > 0;
+    }
+
+    public boolean isSoftExpirable() {
+        return softTtl > 0 && softTtl < ttl;
     }
 }
@@ -0,0 +1,72 @@
+package com.hot6.phopa.core.common.repository;
+
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Redis 에 모인 좋아요 수 증감을 batch 단위로 DB 에 반영
+ * batch id 를 like_count_flush_log 에 먼저 기록하고 같은 트랜잭션에서 like_count 를 더하기 때문에
+ * 같은 batch 를 여러 번 반영하려 해도 한 번만 적용됨.
+ */
+@Repository
+public class LikeCountFlushRepository {
+
+    // multi-row UPDATE 한 번에 넣는 대상 수
+    private static final int CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LikeCountFlushRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * 트랜잭션 안에서 불러야 이력 기록과 반영이 함께 commit 됨. 이미 반영된 batch 면 false
+     */
+    public boolean apply(LikeTargetType targetType, String batchId, Map<Long, Long> deltaMap) {
+        int inserted = jdbcTemplate.update("INSERT IGNORE INTO like_count_flush_log (batch_id, target_type, size) VALUES (?, ?, ?)",
+                batchId, targetType.name(), deltaMap.size());
+        if (inserted == 0) {
+            return false;
+        }
+        // 동시에 flush 하는 노드끼리 deadlock 나지 않도록 id 순서로 lock 을 잡음
+        List<Map.Entry<Long, Long>> entryList = new ArrayList<>(new TreeMap<>(deltaMap).entrySet());
+        for (int from = 0; from < entryList.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<Long, Long>> chunk = entryList.subList(from, Math.min(from + CHUNK_SIZE, entryList.size()));
+            jdbcTemplate.update(updateSql(targetType, chunk.size()), toArgs(chunk));
+        }
+        return true;
+    }
+
+    public int deleteFlushLogBefore(LocalDateTime createdAt) {
+        return jdbcTemplate.update("DELETE FROM like_count_flush_log WHERE created_at < ?", createdAt);
+    }
+
+    // UPDATE {table} t JOIN (SELECT ? AS id, ? AS delta UNION ALL SELECT ?, ? ...) d ON t.id = d.id SET ...
+    private String updateSql(LikeTargetType targetType, int size) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("UPDATE ").append(targetType.getTableName()).append(" t JOIN (SELECT ? AS id, ? AS delta");
+        for (int i = 1; i < size; i++) {
+            sb.append(" UNION ALL SELECT ?, ?");
+        }
+        sb.append(") d ON t.id = d.id SET t.like_count = t.like_count + d.delta");
+        return sb.toString();
+    }
+
+    private Object[] toArgs(List<Map.Entry<Long, Long>> chunk) {
+        Object[] args = new Object[chunk.size() * 2];
+        for (int i = 0; i < chunk.size(); i++) {
+            args[i * 2] = chunk.get(i).getKey();
+            args[i * 2 + 1] = chunk.get(i).getValue();
+        }
+        return args;
+    }
+}
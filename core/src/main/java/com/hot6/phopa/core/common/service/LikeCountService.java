@@ -0,0 +1,263 @@
+package com.hot6.phopa.core.common.service;
+
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheDependencyType;
+import com.hot6.phopa.core.common.model.type.CacheType;
+import com.hot6.phopa.core.common.repository.LikeCountFlushRepository;
+import com.hot6.phopa.core.domain.community.repository.PostRepository;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothRepository;
+import com.hot6.phopa.core.domain.photobooth.service.PhotoBoothVersionService;
+import com.hot6.phopa.core.domain.review.repository.ReviewImageRepository;
+import com.hot6.phopa.core.service.CacheInvalidationEvent;
+import com.hot6.phopa.core.service.RedisCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 좋아요 수 write-behind
+ * 좋아요/취소 시 DB 의 like_count 를 바로 바꾸지 않고 Redis 에 증감(INCRBY)만 쌓아두고, 주기적으로 대상별로 모아 한 번에 반영함.
+ * 반영할 증감은 Lua script 로 batch(hash)에 옮겨 담은 뒤 DB 에 반영하고, 반영이 끝나야 batch 를 지움.
+ * 반영 도중 멈춰도 batch 가 Redis 에 남아 있어 다음 flush 때 다시 반영하고, 이미 반영된 batch 는 like_count_flush_log 로 걸러짐.
+ * 조회 시에는 DB 값에 아직 반영되지 않은 증감을 더해서 내려줌. batch 로 옮겨진 뒤 DB 에 반영되기 전까지의 짧은 시간은 더해지지 않음.
+ */
+@Slf4j
+@Service
+public class LikeCountService {
+
+    private static final String DIRTY_KEY_PREFIX = "like:dirty:";
+
+    private static final String BATCH_KEY_PREFIX = "like:flush:";
+
+    private static final String PENDING_BATCH_KEY_PREFIX = "like:flush:pending:";
+
+    // 증감이 쌓인 id 를 꺼내 증감을 batch hash 로 옮기고, 0 이 아닌 증감이 있으면 batch id 를 pending 에 등록
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('spop', KEYS[1], ARGV[1]) "
+                    + "local count = 0 "
+                    + "for _, id in ipairs(ids) do "
+                    + "local key = ARGV[2] .. id "
+                    + "local delta = redis.call('get', key) "
+                    + "redis.call('del', key) "
+                    + "if delta and tonumber(delta) ~= 0 then "
+                    + "redis.call('hset', KEYS[2], id, delta) "
+                    + "count = count + 1 "
+                    + "end "
+                    + "end "
+                    + "if count > 0 then redis.call('sadd', KEYS[3], ARGV[3]) end "
+                    + "return count", Long.class);
+
+    private final RedisCacheService cacheService;
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final LikeCountFlushRepository likeCountFlushRepository;
+
+    private final PhotoBoothRepository photoBoothRepository;
+
+    private final PostRepository postRepository;
+
+    private final ReviewImageRepository reviewImageRepository;
+
+    private final PhotoBoothVersionService photoBoothVersionService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean writeBehindEnabled;
+
+    private final int batchSize;
+
+    private final int flushLogRetentionDays;
+
+    public LikeCountService(RedisCacheService cacheService,
+                            RedisTemplate<String, String> redisTemplate,
+                            LikeCountFlushRepository likeCountFlushRepository,
+                            PhotoBoothRepository photoBoothRepository,
+                            PostRepository postRepository,
+                            ReviewImageRepository reviewImageRepository,
+                            PhotoBoothVersionService photoBoothVersionService,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${like-count.write-behind.enabled:false}") boolean writeBehindEnabled,
+                            @Value("${like-count.write-behind.batch-size:1000}") int batchSize,
+                            @Value("${like-count.write-behind.flush-log-retention-days:7}") int flushLogRetentionDays) {
+        this.cacheService = cacheService;
+        this.redisTemplate = redisTemplate;
+        this.likeCountFlushRepository = likeCountFlushRepository;
+        this.photoBoothRepository = photoBoothRepository;
+        this.postRepository = postRepository;
+        this.reviewImageRepository = reviewImageRepository;
+        this.photoBoothVersionService = photoBoothVersionService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehindEnabled = writeBehindEnabled;
+        this.batchSize = batchSize;
+        this.flushLogRetentionDays = flushLogRetentionDays;
+    }
+
+    /**
+     * 좋아요 row 를 바꾼 트랜잭션 안에서 부름. write-behind 를 쓰면 commit 이후에 Redis 에 증감을 쌓음
+     */
+    public void add(LikeTargetType targetType, Long targetId, int delta) {
+        if (writeBehindEnabled == false) {
+            updateLikeCount(targetType, targetId, delta);
+            afterLikeCountChanged(targetType, Collections.singletonList(targetId));
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addDelta(targetType, targetId, delta);
+                }
+            });
+        } else {
+            addDelta(targetType, targetId, delta);
+        }
+    }
+
+    /**
+     * 아직 DB 에 반영되지 않은 증감, 없는 id 는 빠짐
+     */
+    public Map<Long, Integer> getPendingDeltaMap(LikeTargetType targetType, Collection<Long> targetIds) {
+        if (writeBehindEnabled == false || CollectionUtils.isEmpty(targetIds)) {
+            return Collections.emptyMap();
+        }
+        List<Long> targetIdList = new ArrayList<>(targetIds);
+        List<CacheKeyEntity> keyList = targetIdList.stream().map(targetId -> deltaKey(targetType, targetId)).collect(Collectors.toList());
+        List<Long> deltaList = cacheService.getAll(keyList, Long.class);
+        Map<Long, Integer> pendingDeltaMap = new HashMap<>();
+        for (int i = 0; i < targetIdList.size(); i++) {
+            Long delta = deltaList.get(i);
+            if (delta != null && delta != 0) {
+                pendingDeltaMap.put(targetIdList.get(i), delta.intValue());
+            }
+        }
+        return pendingDeltaMap;
+    }
+
+    public int getPendingDelta(LikeTargetType targetType, Long targetId) {
+        return getPendingDeltaMap(targetType, Collections.singletonList(targetId)).getOrDefault(targetId, 0);
+    }
+
+    @Scheduled(fixedDelayString = "${like-count.write-behind.flush-interval:5000}")
+    public void flush() {
+        if (writeBehindEnabled == false) {
+            return;
+        }
+        for (LikeTargetType targetType : LikeTargetType.values()) {
+            try {
+                flush(targetType);
+            } catch (RuntimeException e) {
+                // 반영하지 못한 batch 는 pending 에 남아 다음 flush 때 다시 반영됨
+                log.warn("like count flush failed. target : {}", targetType, e);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${like-count.write-behind.flush-log-purge-cron:0 0 4 * * *}")
+    public void purgeFlushLog() {
+        if (writeBehindEnabled == false) {
+            return;
+        }
+        int deleted = likeCountFlushRepository.deleteFlushLogBefore(LocalDateTime.now().minusDays(flushLogRetentionDays));
+        log.info("like count flush log purged. size : {}", deleted);
+    }
+
+    private void flush(LikeTargetType targetType) {
+        // 이전 flush 가 batch 를 지우기 전에 멈췄으면(재시작 등) 그 batch 부터 반영
+        Set<String> pendingBatchIdSet = redisTemplate.opsForSet().members(pendingBatchKey(targetType));
+        if (CollectionUtils.isNotEmpty(pendingBatchIdSet)) {
+            pendingBatchIdSet.forEach(batchId -> apply(targetType, batchId));
+        }
+        String batchId = UUID.randomUUID().toString();
+        Long claimed = redisTemplate.execute(CLAIM_SCRIPT,
+                Arrays.asList(dirtyKey(targetType), batchKey(targetType, batchId), pendingBatchKey(targetType)),
+                String.valueOf(batchSize), deltaKey(targetType, "").getValueKey(), batchId);
+        if (claimed != null && claimed > 0) {
+            apply(targetType, batchId);
+        }
+    }
+
+    private void apply(LikeTargetType targetType, String batchId) {
+        String batchKey = batchKey(targetType, batchId);
+        Map<Long, Long> deltaMap = redisTemplate.<String, String>opsForHash().entries(batchKey).entrySet().stream()
+                .collect(Collectors.toMap(entry -> Long.valueOf(entry.getKey()), entry -> Long.valueOf(entry.getValue())));
+        if (deltaMap.isEmpty() == false) {
+            Boolean applied = transactionTemplate.execute(status -> likeCountFlushRepository.apply(targetType, batchId, deltaMap));
+            if (Boolean.TRUE.equals(applied)) {
+                afterLikeCountChanged(targetType, deltaMap.keySet());
+                log.debug("like count flushed. target : {}, batch : {}, size : {}", targetType, batchId, deltaMap.size());
+            }
+        }
+        redisTemplate.delete(batchKey);
+        redisTemplate.opsForSet().remove(pendingBatchKey(targetType), batchId);
+    }
+
+    // INCRBY 이후에 dirty 에 넣어야 flush 가 그 사이에 id 만 꺼내 가서 증감이 남는 일이 없음
+    private void addDelta(LikeTargetType targetType, Long targetId, int delta) {
+        try {
+            cacheService.incrBy(deltaKey(targetType, targetId), delta);
+            redisTemplate.opsForSet().add(dirtyKey(targetType), String.valueOf(targetId));
+        } catch (RuntimeException e) {
+            // 좋아요 row 는 이미 commit 됐으므로 요청은 실패시키지 않음
+            log.error("like count delta lost. target : {}, id : {}, delta : {}", targetType, targetId, delta, e);
+        }
+    }
+
+    private void updateLikeCount(LikeTargetType targetType, Long targetId, int delta) {
+        switch (targetType) {
+            case PHOTO_BOOTH:
+                photoBoothRepository.updateLikeCount(targetId, delta);
+                break;
+            case POST:
+                postRepository.updateLikeCount(targetId, delta);
+                break;
+            case REVIEW_IMAGE:
+                reviewImageRepository.updateLikeCount(targetId, delta);
+                break;
+        }
+    }
+
+    // 포토부스 상세 캐시와 앱 delta sync 버전은 DB 에 반영된 시점에 갱신
+    private void afterLikeCountChanged(LikeTargetType targetType, Collection<Long> targetIds) {
+        if (LikeTargetType.PHOTO_BOOTH.equals(targetType) == false) {
+            return;
+        }
+        photoBoothVersionService.markCounterChanged(targetIds);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(targetIds.stream().map(CacheDependencyType.PhotoBooth::key).collect(Collectors.toCollection(LinkedHashSet::new))));
+    }
+
+    private CacheKeyEntity deltaKey(LikeTargetType targetType, Object targetId) {
+        return CacheKeyEntity.valueKey(CacheType.LikeCountDelta, targetType, targetId);
+    }
+
+    private String dirtyKey(LikeTargetType targetType) {
+        return DIRTY_KEY_PREFIX + targetType.name();
+    }
+
+    private String batchKey(LikeTargetType targetType, String batchId) {
+        return BATCH_KEY_PREFIX + targetType.name() + ":" + batchId;
+    }
+
+    private String pendingBatchKey(LikeTargetType targetType) {
+        return PENDING_BATCH_KEY_PREFIX + targetType.name();
+    }
+}
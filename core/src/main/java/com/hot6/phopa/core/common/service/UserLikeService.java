@@ -0,0 +1,171 @@
+package com.hot6.phopa.core.common.service;
+
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
+import com.hot6.phopa.core.domain.community.repository.PostLikeRepository;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothLikeRepository;
+import com.hot6.phopa.core.domain.review.repository.ReviewImageLikeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 사용자별 좋아요한 id 집합 (Redis set), 목록의 isLike 를 SMISMEMBER 한 번으로 채움
+ * 처음 조회할 때 DB 에서 읽어 채우고, 좋아요/취소는 commit 이후 집합이 있을 때만 반영함.
+ * 집합이 없을 때 좋아요가 바뀌면 changed 표시를 남기고, 그 동안은 채우지 않아 바뀌기 전 DB 목록으로 덮어쓰지 않음.
+ * SMISMEMBER 는 Redis 6.2 이상에서만 동작함.
+ */
+@Slf4j
+@Service
+public class UserLikeService {
+
+    private static final String KEY_PREFIX = "like:user:";
+
+    private static final String CHANGED_KEY_SUFFIX = ":changed";
+
+    // 좋아요가 없는 사용자도 채워졌는지 알 수 있도록 항상 넣어두는 값 (id 는 1 부터)
+    private static final String LOADED_MEMBER = "0";
+
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[2]) == 1 or redis.call('exists', KEYS[1]) == 1 then return 0 end "
+                    + "for i = 2, #ARGV, 1000 do "
+                    + "redis.call('sadd', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV))) "
+                    + "end "
+                    + "redis.call('expire', KEYS[1], ARGV[1]) "
+                    + "return 1", Long.class);
+
+    private static final RedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then "
+                    + "if ARGV[1] == '1' then redis.call('sadd', KEYS[1], ARGV[2]) else redis.call('srem', KEYS[1], ARGV[2]) end "
+                    + "return 1 "
+                    + "end "
+                    + "redis.call('set', KEYS[2], '1', 'EX', ARGV[3]) "
+                    + "return 0", Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final PhotoBoothLikeRepository photoBoothLikeRepository;
+
+    private final PostLikeRepository postLikeRepository;
+
+    private final ReviewImageLikeRepository reviewImageLikeRepository;
+
+    private final long ttl;
+
+    private final long changedTtl;
+
+    public UserLikeService(RedisTemplate<String, String> redisTemplate,
+                           PhotoBoothLikeRepository photoBoothLikeRepository,
+                           PostLikeRepository postLikeRepository,
+                           ReviewImageLikeRepository reviewImageLikeRepository,
+                           @Value("${like-count.user-set.ttl:3600}") long ttl,
+                           @Value("${like-count.user-set.changed-ttl:10}") long changedTtl) {
+        this.redisTemplate = redisTemplate;
+        this.photoBoothLikeRepository = photoBoothLikeRepository;
+        this.postLikeRepository = postLikeRepository;
+        this.reviewImageLikeRepository = reviewImageLikeRepository;
+        this.ttl = ttl;
+        this.changedTtl = changedTtl;
+    }
+
+    /**
+     * targetIds 중 userId 가 좋아요한 id. 비로그인(userId null)이면 빈 집합
+     */
+    public Set<Long> getLikedIdSet(LikeTargetType targetType, Long userId, Collection<Long> targetIds) {
+        if (userId == null || CollectionUtils.isEmpty(targetIds)) {
+            return Collections.emptySet();
+        }
+        List<Long> targetIdList = new ArrayList<>(targetIds);
+        Object[] members = new Object[targetIdList.size() + 1];
+        members[0] = LOADED_MEMBER;
+        for (int i = 0; i < targetIdList.size(); i++) {
+            members[i + 1] = String.valueOf(targetIdList.get(i));
+        }
+        Map<Object, Boolean> memberMap;
+        try {
+            memberMap = redisTemplate.opsForSet().isMember(key(targetType, userId), members);
+        } catch (RuntimeException e) {
+            log.warn("user like set lookup failed. target : {}, user : {}", targetType, userId, e);
+            return filter(findLikedIdSet(targetType, userId), targetIdList);
+        }
+        if (memberMap != null && Boolean.TRUE.equals(memberMap.get(LOADED_MEMBER))) {
+            return targetIdList.stream().filter(targetId -> Boolean.TRUE.equals(memberMap.get(String.valueOf(targetId)))).collect(Collectors.toSet());
+        }
+        return filter(load(targetType, userId), targetIdList);
+    }
+
+    public boolean isLiked(LikeTargetType targetType, Long userId, Long targetId) {
+        return getLikedIdSet(targetType, userId, Collections.singletonList(targetId)).contains(targetId);
+    }
+
+    /**
+     * 좋아요 row 를 바꾼 트랜잭션 안에서 부름, commit 이후에 반영
+     */
+    public void changed(LikeTargetType targetType, Long userId, Long targetId, boolean liked) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update(targetType, userId, targetId, liked);
+                }
+            });
+        } else {
+            update(targetType, userId, targetId, liked);
+        }
+    }
+
+    private void update(LikeTargetType targetType, Long userId, Long targetId, boolean liked) {
+        String key = key(targetType, userId);
+        try {
+            redisTemplate.execute(UPDATE_SCRIPT, Arrays.asList(key, key + CHANGED_KEY_SUFFIX),
+                    liked ? "1" : "0", String.valueOf(targetId), String.valueOf(changedTtl));
+        } catch (RuntimeException e) {
+            // 좋아요 row 는 이미 commit 됐으므로 요청은 실패시키지 않음, 집합 TTL 이 지나면 DB 기준으로 다시 채워짐
+            log.warn("user like set update failed. target : {}, user : {}", targetType, userId, e);
+        }
+    }
+
+    private Set<Long> load(LikeTargetType targetType, Long userId) {
+        Set<Long> likedIdSet = findLikedIdSet(targetType, userId);
+        List<String> argList = new ArrayList<>(likedIdSet.size() + 2);
+        argList.add(String.valueOf(ttl));
+        argList.add(LOADED_MEMBER);
+        likedIdSet.forEach(likedId -> argList.add(String.valueOf(likedId)));
+        String key = key(targetType, userId);
+        try {
+            redisTemplate.execute(LOAD_SCRIPT, Arrays.asList(key, key + CHANGED_KEY_SUFFIX), argList.toArray());
+        } catch (RuntimeException e) {
+            log.warn("user like set load failed. target : {}, user : {}", targetType, userId, e);
+        }
+        return likedIdSet;
+    }
+
+    private Set<Long> findLikedIdSet(LikeTargetType targetType, Long userId) {
+        switch (targetType) {
+            case PHOTO_BOOTH:
+                return new HashSet<>(photoBoothLikeRepository.findPhotoBoothIdListByUserId(userId));
+            case POST:
+                return new HashSet<>(postLikeRepository.findPostIdListByUserId(userId));
+            case REVIEW_IMAGE:
+                return new HashSet<>(reviewImageLikeRepository.findReviewImageIdListByUserId(userId));
+            default:
+                return Collections.emptySet();
+        }
+    }
+
+    private Set<Long> filter(Set<Long> likedIdSet, List<Long> targetIdList) {
+        return targetIdList.stream().filter(likedIdSet::contains).collect(Collectors.toSet());
+    }
+
+    private String key(LikeTargetType targetType, Long userId) {
+        return KEY_PREFIX + targetType.name() + ":" + userId;
+    }
+}
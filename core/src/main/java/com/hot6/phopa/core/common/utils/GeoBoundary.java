@@ -0,0 +1,25 @@
+package com.hot6.phopa.core.common.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * [minLatitude, maxLatitude) x [minLongitude, maxLongitude) 사각 영역
+ */
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class GeoBoundary {
+    private double minLatitude;
+    private double maxLatitude;
+    private double minLongitude;
+    private double maxLongitude;
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLatitude && latitude < maxLatitude && longitude >= minLongitude && longitude < maxLongitude;
+    }
+
+    // ST_GeomFromText(..., 4326, 'axis-order=long-lat') 와 함께 사용
+    public String toLineStringText() {
+        return String.format("LINESTRING(%s %s, %s %s)", minLongitude, minLatitude, maxLongitude, maxLatitude);
+    }
+}
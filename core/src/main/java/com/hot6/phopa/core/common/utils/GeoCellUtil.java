@@ -0,0 +1,62 @@
+package com.hot6.phopa.core.common.utils;
+
+/**
+ * 위/경도를 cellSize(degree) 단위 격자로 나눈 cell 계산
+ * cell key = row * COLUMN_COUNT + column
+ * row / column 은 minLatitude / minLongitude 로 만든 경계와 같은 cell 을 가리키도록 맞춤
+ * (나눗셈의 부동소수점 오차로 경계 위의 점이 옆 cell 로 가면 경계로 거른 SQL 결과와 cell 별 count 가 어긋남)
+ */
+public class GeoCellUtil {
+
+    private static final long COLUMN_COUNT = 1L << 32;
+
+    public static int row(double latitude, double cellSize) {
+        int row = (int) Math.floor((latitude + 90.0) / cellSize);
+        if (latitude < minLatitude(row, cellSize)) {
+            return row - 1;
+        }
+        return latitude >= minLatitude(row + 1, cellSize) ? row + 1 : row;
+    }
+
+    public static int column(double longitude, double cellSize) {
+        int column = (int) Math.floor((longitude + 180.0) / cellSize);
+        if (longitude < minLongitude(column, cellSize)) {
+            return column - 1;
+        }
+        return longitude >= minLongitude(column + 1, cellSize) ? column + 1 : column;
+    }
+
+    public static long key(int row, int column) {
+        return row * COLUMN_COUNT + column;
+    }
+
+    public static long key(double latitude, double longitude, double cellSize) {
+        return key(row(latitude, cellSize), column(longitude, cellSize));
+    }
+
+    public static int rowOf(long key) {
+        return (int) (key / COLUMN_COUNT);
+    }
+
+    public static int columnOf(long key) {
+        return (int) (key % COLUMN_COUNT);
+    }
+
+    public static double minLatitude(int row, double cellSize) {
+        return row * cellSize - 90.0;
+    }
+
+    public static double minLongitude(int column, double cellSize) {
+        return column * cellSize - 180.0;
+    }
+
+    public static GeoBoundary boundary(int row, int minColumn, int maxColumn, double cellSize) {
+        return GeoBoundary.of(minLatitude(row, cellSize), minLatitude(row + 1, cellSize), minLongitude(minColumn, cellSize), minLongitude(maxColumn + 1, cellSize));
+    }
+
+    public static GeoBoundary boundary(long key, double cellSize) {
+        int row = rowOf(key);
+        int column = columnOf(key);
+        return boundary(row, column, column, cellSize);
+    }
+}
@@ -1,5 +1,10 @@
 package com.hot6.phopa.core.common.utils;
 
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+
 /**Ø
  * Haversine Formula
  * φ2 = asin( sin φ1 ⋅ cos δ + cos φ1 ⋅ sin δ ⋅ cos θ )
@@ -7,56 +12,109 @@ package com.hot6.phopa.core.common.utils;
  */
 public class GeometryUtil {
 
-    public static Location calculate(Double baseLatitude, Double baseLongitude, Double distance,
-                                     Double bearing) {
-        Double radianLatitude = toRadian(baseLatitude);
-        Double radianLongitude = toRadian(baseLongitude);
-        Double radianAngle = toRadian(bearing);
-        Double distanceRadius = distance / 6371.01;
+    public static final int SRID = 4326;
+
+    private static final double EARTH_RADIUS_KM = 6371.01;
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), SRID);
+
+    public static Location calculate(double baseLatitude, double baseLongitude, double distance,
+                                     double bearing) {
+        double radianLatitude = Math.toRadians(baseLatitude);
+        double radianLongitude = Math.toRadians(baseLongitude);
+        double radianAngle = Math.toRadians(bearing);
+        double distanceRadius = distance / EARTH_RADIUS_KM;
 
-        Double latitude = Math.asin(sin(radianLatitude) * cos(distanceRadius) +
-                cos(radianLatitude) * sin(distanceRadius) * cos(radianAngle));
-        Double longitude = radianLongitude + Math.atan2(sin(radianAngle) * sin(distanceRadius) *
-                cos(radianLatitude), cos(distanceRadius) - sin(radianLatitude) * sin(latitude));
+        double latitude = Math.asin(Math.sin(radianLatitude) * Math.cos(distanceRadius) +
+                Math.cos(radianLatitude) * Math.sin(distanceRadius) * Math.cos(radianAngle));
+        double longitude = radianLongitude + Math.atan2(Math.sin(radianAngle) * Math.sin(distanceRadius) *
+                Math.cos(radianLatitude), Math.cos(distanceRadius) - Math.sin(radianLatitude) * Math.sin(latitude));
 
 //        longitude = normalizeLongitude(longitude);
-        return new Location(toDegree(latitude), toDegree(longitude));
+        return new Location(Math.toDegrees(latitude), Math.toDegrees(longitude));
     }
 
-    private static Double toRadian(Double coordinate) {
-        return coordinate * Math.PI / 180.0;
+//    private static Double normalizeLongitude(Double longitude) {
+//        return (longitude + 540) % 360 - 180;
+//    }
+    // MySQL 내부 저장 순서에 맞춰 x = 경도, y = 위도
+    public static Point createPoint(double latitude, double longitude) {
+        return GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
     }
 
-    private static Double toDegree(Double coordinate) {
-        return coordinate * 180.0 / Math.PI;
+    // ST_GeomFromText(..., 4326, 'axis-order=long-lat') 와 함께 사용
+    public static String toPointText(double latitude, double longitude) {
+        return String.format("POINT(%s %s)", longitude, latitude);
     }
 
-    private static Double sin(Double coordinate) {
-        return Math.sin(coordinate);
+    /**
+     * 중심에서 distance(km) 반경을 덮는 bounding box 를 LINESTRING(서남, 동북) 으로 반환
+     * MBRContains 의 prefilter 용도
+     */
+    public static String toBoundaryText(double latitude, double longitude, double distance) {
+        Location north = calculate(latitude, longitude, distance, 0.0);
+        Location east = calculate(latitude, longitude, distance, 90.0);
+        Location south = calculate(latitude, longitude, distance, 180.0);
+        Location west = calculate(latitude, longitude, distance, 270.0);
+        return String.format("LINESTRING(%s %s, %s %s)", west.getLongitude(), south.getLatitude(), east.getLongitude(), north.getLatitude());
     }
 
-    private static Double cos(Double coordinate) {
-        return Math.cos(coordinate);
+    /**
+     * 두 좌표 사이의 대원 거리(km)
+     */
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double latitudeDiff = Math.toRadians(lat2 - lat1);
+        double longitudeDiff = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latitudeDiff / 2) * Math.sin(latitudeDiff / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(longitudeDiff / 2) * Math.sin(longitudeDiff / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
     }
 
-//    private static Double normalizeLongitude(Double longitude) {
-//        return (longitude + 540) % 360 - 180;
-//    }
-//    public static Point createPoint(double lat, double lon) {
-//        GeometryFactory gf = new GeometryFactory();
-//        return gf.createPoint(new Coordinate(lat, lon));
-//    }
-
+    /**
+     * 두 좌표 사이의 거리(km), haversine 과 같음
+     */
     public static double distance(double lat1, double lon1, double lat2, double lon2) {
-        double theta = lon1 - lon2;
-        double dist = Math.sin(toDegree(lat1)) * Math.sin(toDegree(lat2)) + Math.cos(toDegree(lat1)) * Math.cos(toDegree(lat2)) * Math.cos(toDegree(theta));
+        return haversine(lat1, lon1, lat2, lon2);
+    }
+
+    /**
+     * 기준 좌표에서 latitudes/longitudes[from, to) 까지의 대원 거리(km)를 distances[0, to - from) 에 씀.
+     * 호출하는 쪽 배열만 사용하고 따로 할당하지 않음.
+     */
+    public static void haversine(double latitude, double longitude, double[] latitudes, double[] longitudes, int from, int to, double[] distances) {
+        double radianLatitude = Math.toRadians(latitude);
+        double cosLatitude = Math.cos(radianLatitude);
+        for (int i = from; i < to; i++) {
+            double sinLatitudeDiff = Math.sin((Math.toRadians(latitudes[i]) - radianLatitude) / 2);
+            double sinLongitudeDiff = Math.sin(Math.toRadians(longitudes[i] - longitude) / 2);
+            double a = sinLatitudeDiff * sinLatitudeDiff + cosLatitude * Math.cos(Math.toRadians(latitudes[i])) * sinLongitudeDiff * sinLongitudeDiff;
+            distances[i - from] = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+        }
+    }
 
-        dist = Math.acos(dist);
-        dist = toRadian(dist);
-        dist = dist * 60 * 1.1515;
-        dist = dist * 1.609344;
+    /**
+     * cosLatitudes(각 위도의 cos)를 미리 계산해 둔 경우. 점마다 cos 한 번을 아낄 수 있음.
+     */
+    public static void haversine(double latitude, double longitude, double[] latitudes, double[] longitudes, double[] cosLatitudes, int from, int to, double[] distances) {
+        double radianLatitude = Math.toRadians(latitude);
+        double cosLatitude = Math.cos(radianLatitude);
+        for (int i = from; i < to; i++) {
+            double sinLatitudeDiff = Math.sin((Math.toRadians(latitudes[i]) - radianLatitude) / 2);
+            double sinLongitudeDiff = Math.sin(Math.toRadians(longitudes[i] - longitude) / 2);
+            double a = sinLatitudeDiff * sinLatitudeDiff + cosLatitude * cosLatitudes[i] * sinLongitudeDiff * sinLongitudeDiff;
+            distances[i - from] = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+        }
+    }
 
-        return (dist);
+    /**
+     * 등장방형(equirectangular) 근사 거리(km). 수 km 이내에서는 haversine 과 거의 같고 삼각함수를 점마다 쓰지 않음.
+     */
+    public static void equirectangular(double latitude, double longitude, double[] latitudes, double[] longitudes, int from, int to, double[] distances) {
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        for (int i = from; i < to; i++) {
+            double x = Math.toRadians(longitudes[i] - longitude) * cosLatitude;
+            double y = Math.toRadians(latitudes[i] - latitude);
+            distances[i - from] = EARTH_RADIUS_KM * Math.sqrt(x * x + y * y);
+        }
     }
-    
-}
\ No newline at end of file
+}
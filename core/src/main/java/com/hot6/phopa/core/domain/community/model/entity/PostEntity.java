@@ -55,10 +55,6 @@ public class PostEntity extends BaseTimeEntity implements Serializable {
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "post", orphanRemoval = true)
     private Set<PostLikeEntity> postLikeSet;
 
-    public void updateLikeCount(int count) {
-        this.likeCount += count;
-    }
-
     public void updateStatus(Status status) {
         this.status = status;
     }
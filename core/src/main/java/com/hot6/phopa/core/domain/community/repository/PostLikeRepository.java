@@ -2,6 +2,7 @@ package com.hot6.phopa.core.domain.community.repository;
 
 import com.hot6.phopa.core.domain.community.model.entity.PostLikeEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,4 +17,15 @@ public interface PostLikeRepository extends JpaRepository<PostLikeEntity, Long>
 
     @Query("SELECT postLike FROM PostLikeEntity postLike where postLike.user.id = :userId and postLike.post.status = 'ACTIVE'")
     List<PostLikeEntity> findAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT postLike.post.id FROM PostLikeEntity postLike where postLike.user.id = :userId")
+    List<Long> findPostIdListByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO post_like (post_id, user_id) VALUES (:postId, :userId)", nativeQuery = true)
+    int insertIgnore(@Param(value = "postId") Long postId, @Param(value = "userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_like WHERE post_id = :postId AND user_id = :userId", nativeQuery = true)
+    int deleteByPostIdAndUserId(@Param(value = "postId") Long postId, @Param(value = "userId") Long userId);
 }
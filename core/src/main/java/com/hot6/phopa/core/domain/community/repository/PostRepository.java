@@ -3,6 +3,9 @@ package com.hot6.phopa.core.domain.community.repository;
 import com.hot6.phopa.core.common.model.type.Status;
 import com.hot6.phopa.core.domain.community.model.entity.PostEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +16,8 @@ public interface PostRepository extends JpaRepository<PostEntity, Long>, PostCus
     List<PostEntity> getAllByUserIdAndStatus(Long userId, Status status);
 
     Optional<PostEntity> findByIdAndStatusAndAndIsPublic(Long postId, Status status, Boolean isPublic);
+
+    @Modifying
+    @Query(value = "UPDATE post SET like_count = like_count + :delta WHERE id = :postId", nativeQuery = true)
+    int updateLikeCount(@Param(value = "postId") Long postId, @Param(value = "delta") int delta);
 }
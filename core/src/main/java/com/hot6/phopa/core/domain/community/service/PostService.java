@@ -1,9 +1,15 @@
 package com.hot6.phopa.core.domain.community.service;
 
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
+import com.hot6.phopa.core.common.enumeration.LikeType;
 import com.hot6.phopa.core.common.exception.ApplicationErrorType;
 import com.hot6.phopa.core.common.exception.SilentApplicationErrorException;
 import com.hot6.phopa.core.common.model.dto.PageableParam;
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheType;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.service.LikeCountService;
+import com.hot6.phopa.core.common.service.UserLikeService;
 import com.hot6.phopa.core.domain.community.enumeration.OrderType;
 import com.hot6.phopa.core.domain.community.model.entity.PostEntity;
 import com.hot6.phopa.core.domain.community.model.entity.PostImageEntity;
@@ -12,6 +18,7 @@ import com.hot6.phopa.core.domain.community.repository.PostImageRepository;
 import com.hot6.phopa.core.domain.community.repository.PostLikeRepository;
 import com.hot6.phopa.core.domain.community.repository.PostRepository;
 import com.hot6.phopa.core.domain.tag.repository.TagRepository;
+import com.hot6.phopa.core.service.RedisCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
@@ -30,31 +37,43 @@ public class PostService {
 
     private final PostImageRepository postImageRepository;
 
+    private final RedisCacheService cacheService;
+
+    private final LikeCountService likeCountService;
+
+    private final UserLikeService userLikeService;
+
     @Transactional(readOnly = true)
     public Page<PostEntity> getPosts(Long userId, Long photoBoothId, PageableParam pageable) {
         return postRepository.findPost(userId, photoBoothId, pageable);
     }
 
     public PostEntity createPost(PostEntity postEntity) {
-        return postRepository.save(postEntity);
+        PostEntity savedPostEntity = postRepository.save(postEntity);
+        cacheService.clearNotFound(CacheKeyEntity.valueKey(CacheType.PostNotFound, savedPostEntity.getId()));
+        return savedPostEntity;
     }
 
     @Transactional(readOnly = true)
     public PostEntity getPostById(Long postId) {
-        return postRepository.findByIdAndStatusAndAndIsPublic(postId, Status.ACTIVE, true).orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
-    }
-
-    public PostLikeEntity createPostLikeEntity(PostLikeEntity postLikeEntity) {
-        return postLikeRepository.save(postLikeEntity);
+        return cacheService.find(CacheKeyEntity.valueKey(CacheType.PostNotFound, postId), () -> postRepository.findByIdAndStatusAndAndIsPublic(postId, Status.ACTIVE, true))
+                .orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
     }
 
-    public void deletePostLikeEntity(PostLikeEntity postLikeEntity) {
-        postLikeRepository.delete(postLikeEntity);
-    }
-
-    @Transactional(readOnly = true)
-    public PostLikeEntity getPostLikeByPostIdAndUserId(Long postId, Long userId) {
-        return postLikeRepository.findOneByPostIdAndUserId(postId, userId);
+    /**
+     * PhotoBoothService.toggleLike 와 같은 방식, 0 이면 같이 들어온 요청이 먼저 좋아요를 누른 것
+     */
+    public LikeType toggleLike(Long postId, Long userId) {
+        if (postLikeRepository.deleteByPostIdAndUserId(postId, userId) > 0) {
+            likeCountService.add(LikeTargetType.POST, postId, -1);
+            userLikeService.changed(LikeTargetType.POST, userId, postId, false);
+            return LikeType.UNLIKE;
+        }
+        if (postLikeRepository.insertIgnore(postId, userId) > 0) {
+            likeCountService.add(LikeTargetType.POST, postId, 1);
+            userLikeService.changed(LikeTargetType.POST, userId, postId, true);
+        }
+        return LikeType.LIKE;
     }
 
     public List<PostEntity> findAllByUserLike(Long userId) {
@@ -69,10 +88,6 @@ public class PostService {
         return postRepository.getAllByUserIdAndStatus(userId, Status.ACTIVE);
     }
 
-    public List<PostLikeEntity> getPostLikeByPostIdsAndUserId(List<Long> postIdList, Long userId) {
-        return postLikeRepository.findAllByPostIdsAndUserId(postIdList, userId);
-    }
-
     public List<PostLikeEntity> getPostLikeBydUserId(Long userId) {
         return postLikeRepository.findAllByUserId(userId);
     }
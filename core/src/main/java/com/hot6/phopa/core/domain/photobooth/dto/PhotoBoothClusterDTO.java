@@ -0,0 +1,16 @@
+package com.hot6.phopa.core.domain.photobooth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor(staticName = "of")
+public class PhotoBoothClusterDTO {
+    // 묶인 포토부스 좌표의 평균
+    private Double latitude;
+    private Double longitude;
+    private Integer count;
+    private Long photoBoothId;
+}
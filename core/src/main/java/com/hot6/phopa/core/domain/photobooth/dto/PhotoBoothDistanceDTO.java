@@ -0,0 +1,11 @@
+package com.hot6.phopa.core.domain.photobooth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class PhotoBoothDistanceDTO implements PhotoBoothNativeQueryDTO {
+    private Long id;
+    private Double distance;
+}
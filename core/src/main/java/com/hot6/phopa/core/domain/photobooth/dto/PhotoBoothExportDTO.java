@@ -0,0 +1,20 @@
+package com.hot6.phopa.core.domain.photobooth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class PhotoBoothExportDTO {
+    private long id;
+    private String name;
+    private String jibunAddress;
+    private String roadAddress;
+    private double latitude;
+    private double longitude;
+    private Integer likeCount;
+    private Integer reviewCount;
+    private Float starScore;
+    private Long tagId;
+    private long version;
+}
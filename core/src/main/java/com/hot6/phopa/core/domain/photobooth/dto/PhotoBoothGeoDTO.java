@@ -0,0 +1,14 @@
+package com.hot6.phopa.core.domain.photobooth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor(staticName = "of")
+public class PhotoBoothGeoDTO {
+    private Long id;
+    private Double latitude;
+    private Double longitude;
+}
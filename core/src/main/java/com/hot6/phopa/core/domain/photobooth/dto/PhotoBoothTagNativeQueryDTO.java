@@ -0,0 +1,6 @@
+package com.hot6.phopa.core.domain.photobooth.dto;
+
+public interface PhotoBoothTagNativeQueryDTO {
+    Long getPhotoBoothId();
+    Long getTagId();
+}
@@ -0,0 +1,12 @@
+package com.hot6.phopa.core.domain.photobooth.enumeration;
+
+public enum PhotoBoothChangeType {
+    STRUCTURAL("생성, 주소/좌표/상태/태그 변경. 바로 새 버전을 발급"),
+    COUNTER("좋아요/리뷰 수, 별점, 대표 이미지 변경. 모아서 주기적으로 한 버전으로 발급"),
+    ;
+    private String description;
+
+    PhotoBoothChangeType(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hot6.phopa.core.domain.photobooth.enumeration;
+
+import lombok.Getter;
+
+@Getter
+public enum PhotoBoothExportFormat {
+    NDJSON("application/x-ndjson", "ndjson", "한 줄에 포토부스 하나"),
+    GEOJSON("application/geo+json", "geojson", "Point Feature 의 FeatureCollection"),
+    ;
+    private String contentType;
+    private String extension;
+    private String description;
+
+    PhotoBoothExportFormat(String contentType, String extension, String description) {
+        this.contentType = contentType;
+        this.extension = extension;
+        this.description = description;
+    }
+}
@@ -0,0 +1,226 @@
+package com.hot6.phopa.core.domain.photobooth.index;
+
+import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.utils.GeoCellUtil;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothClusterDTO;
+import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 지도 level(카카오맵 level, 클수록 넓게 보임) 별 격자 cluster
+ * level 의 cell 크기는 baseCellSize * 2^(level - 1) 이고 minLevel ~ maxLevel 만 미리 계산해 둠.
+ * 포토부스 추가/비활성화 시 해당 포토부스가 속한 cell 만 level 별로 갱신함.
+ */
+@Slf4j
+@Component
+public class PhotoBoothClusterIndex {
+
+    private final PhotoBoothRepository photoBoothRepository;
+
+    private final boolean enabled;
+
+    private final double baseCellSize;
+
+    private final int minLevel;
+
+    private final int maxLevel;
+
+    // 포토부스 id -> {latitude, longitude}
+    private volatile Map<Long, double[]> positionMap = new ConcurrentHashMap<>();
+
+    // (level - minLevel) -> cell key -> cluster, rebuild 는 새 map 을 만들어 통째로 교체함
+    private volatile List<Map<Long, Cluster>> levelClusterMapList = new ArrayList<>();
+
+    private volatile boolean built;
+
+    public PhotoBoothClusterIndex(PhotoBoothRepository photoBoothRepository,
+                                  @Value("${photo-booth.cluster.enabled:false}") boolean enabled,
+                                  @Value("${photo-booth.cluster.base-cell-size:0.0005}") double baseCellSize,
+                                  @Value("${photo-booth.cluster.min-level:4}") int minLevel,
+                                  @Value("${photo-booth.cluster.max-level:14}") int maxLevel) {
+        this.photoBoothRepository = photoBoothRepository;
+        this.enabled = enabled;
+        this.baseCellSize = baseCellSize;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 다른 노드의 변경 전파가 유실된 경우를 위해 주기적으로 DB 기준으로 다시 만듦
+     */
+    @Scheduled(fixedDelayString = "${photo-booth.cluster.rebuild-interval:600000}", initialDelayString = "${photo-booth.cluster.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        if (isAvailable()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        Map<Long, double[]> newPositionMap = new ConcurrentHashMap<>();
+        List<Map<Long, Cluster>> newLevelClusterMapList = new ArrayList<>();
+        for (int level = minLevel; level <= maxLevel; level++) {
+            newLevelClusterMapList.add(new ConcurrentHashMap<>());
+        }
+        List<PhotoBoothEntity> photoBoothEntityList = photoBoothRepository.findAllByStatus(Status.ACTIVE);
+        for (PhotoBoothEntity photoBoothEntity : photoBoothEntityList) {
+            add(newPositionMap, newLevelClusterMapList, photoBoothEntity.getId(), photoBoothEntity.getLatitude(), photoBoothEntity.getLongitude());
+        }
+        this.positionMap = newPositionMap;
+        this.levelClusterMapList = newLevelClusterMapList;
+        this.built = true;
+        log.info("photo booth cluster index built. size : {}, levels : {} ~ {}", newPositionMap.size(), minLevel, maxLevel);
+    }
+
+    public boolean isAvailable() {
+        return enabled && built;
+    }
+
+    /**
+     * minLevel 보다 작은(더 확대된) level 은 cluster 대신 포토부스를 그대로 내려줌
+     */
+    public boolean isClusterLevel(int level) {
+        return level >= minLevel;
+    }
+
+    public double clusterCellSize(int level) {
+        return cellSize(Math.min(Math.max(level, minLevel), maxLevel));
+    }
+
+    public List<PhotoBoothClusterDTO> findClusters(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude, int level) {
+        int clusterLevel = Math.min(Math.max(level, minLevel), maxLevel);
+        double cellSize = cellSize(clusterLevel);
+        Map<Long, Cluster> clusterMap = levelClusterMapList.get(clusterLevel - minLevel);
+        int minRow = GeoCellUtil.row(minLatitude, cellSize);
+        int maxRow = GeoCellUtil.row(maxLatitude, cellSize);
+        int minColumn = GeoCellUtil.column(minLongitude, cellSize);
+        int maxColumn = GeoCellUtil.column(maxLongitude, cellSize);
+
+        List<PhotoBoothClusterDTO> result = new ArrayList<>();
+        // 화면 안 cell 수가 전체 cluster 수보다 많으면 cluster 를 훑는 편이 빠름
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) > clusterMap.size()) {
+            for (Map.Entry<Long, Cluster> entry : clusterMap.entrySet()) {
+                int row = GeoCellUtil.rowOf(entry.getKey());
+                int column = GeoCellUtil.columnOf(entry.getKey());
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn) {
+                    result.add(entry.getValue().toDto());
+                }
+            }
+            return result;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Cluster cluster = clusterMap.get(GeoCellUtil.key(row, column));
+                if (cluster != null) {
+                    result.add(cluster.toDto());
+                }
+            }
+        }
+        return result;
+    }
+
+    public void apply(PhotoBoothEntity photoBoothEntity) {
+        if (Status.ACTIVE.equals(photoBoothEntity.getStatus())) {
+            put(photoBoothEntity.getId(), photoBoothEntity.getLatitude(), photoBoothEntity.getLongitude());
+        } else {
+            remove(photoBoothEntity.getId());
+        }
+    }
+
+    public synchronized void put(long id, double latitude, double longitude) {
+        if (built == false) {
+            return;
+        }
+        double[] position = positionMap.get(id);
+        if (position != null && position[0] == latitude && position[1] == longitude) {
+            return;
+        }
+        remove(id);
+        add(positionMap, levelClusterMapList, id, latitude, longitude);
+    }
+
+    public synchronized void remove(long id) {
+        double[] position = positionMap.remove(id);
+        if (position == null) {
+            return;
+        }
+        for (int level = minLevel; level <= maxLevel; level++) {
+            double cellSize = cellSize(level);
+            long cellKey = GeoCellUtil.key(position[0], position[1], cellSize);
+            Map<Long, Cluster> clusterMap = levelClusterMapList.get(level - minLevel);
+            Cluster cluster = clusterMap.get(cellKey);
+            if (cluster == null) {
+                continue;
+            }
+            if (cluster.count <= 1) {
+                clusterMap.remove(cellKey);
+                continue;
+            }
+            // 대표 포토부스가 빠지면 같은 cell 에 남은 것 중 id 가 가장 작은 것으로 교체
+            long representativeId = cluster.representativeId == id ? findRepresentativeId(cellKey, cellSize) : cluster.representativeId;
+            clusterMap.put(cellKey, new Cluster(cluster.count - 1, cluster.latitudeSum - position[0], cluster.longitudeSum - position[1], representativeId));
+        }
+    }
+
+    private void add(Map<Long, double[]> positionMap, List<Map<Long, Cluster>> levelClusterMapList, long id, double latitude, double longitude) {
+        positionMap.put(id, new double[]{latitude, longitude});
+        for (int level = minLevel; level <= maxLevel; level++) {
+            long cellKey = GeoCellUtil.key(latitude, longitude, cellSize(level));
+            Map<Long, Cluster> clusterMap = levelClusterMapList.get(level - minLevel);
+            Cluster cluster = clusterMap.get(cellKey);
+            clusterMap.put(cellKey, cluster == null
+                    ? new Cluster(1, latitude, longitude, id)
+                    : new Cluster(cluster.count + 1, cluster.latitudeSum + latitude, cluster.longitudeSum + longitude, Math.min(cluster.representativeId, id)));
+        }
+    }
+
+    private long findRepresentativeId(long cellKey, double cellSize) {
+        long representativeId = Long.MAX_VALUE;
+        for (Map.Entry<Long, double[]> entry : positionMap.entrySet()) {
+            if (entry.getKey() < representativeId && GeoCellUtil.key(entry.getValue()[0], entry.getValue()[1], cellSize) == cellKey) {
+                representativeId = entry.getKey();
+            }
+        }
+        return representativeId;
+    }
+
+    private double cellSize(int level) {
+        return baseCellSize * (1L << (level - 1));
+    }
+
+    // 조회 쪽은 lock 없이 읽기 때문에 변경 시 새 객체로 교체함
+    private static final class Cluster {
+        private final int count;
+        private final double latitudeSum;
+        private final double longitudeSum;
+        private final long representativeId;
+
+        private Cluster(int count, double latitudeSum, double longitudeSum, long representativeId) {
+            this.count = count;
+            this.latitudeSum = latitudeSum;
+            this.longitudeSum = longitudeSum;
+            this.representativeId = representativeId;
+        }
+
+        private PhotoBoothClusterDTO toDto() {
+            return PhotoBoothClusterDTO.of(latitudeSum / count, longitudeSum / count, count, representativeId);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hot6.phopa.core.domain.photobooth.index;
+
+import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 포토부스 생성/상태 변경을 in-memory 인덱스(geo, cluster, tag)에 반영. 트랜잭션 안이면 commit 이후에 반영함.
+ * 상태/좌표/브랜드 태그가 바뀐 경우에만 반영하고, 다른 노드에도 알림.
+ */
+@Component
+public class PhotoBoothEntityListener {
+
+    private final PhotoBoothGeoIndex photoBoothGeoIndex;
+
+    private final PhotoBoothClusterIndex photoBoothClusterIndex;
+
+    private final PhotoBoothTagIndex photoBoothTagIndex;
+
+    private final PhotoBoothIndexSyncService photoBoothIndexSyncService;
+
+    public PhotoBoothEntityListener(@Lazy PhotoBoothGeoIndex photoBoothGeoIndex, @Lazy PhotoBoothClusterIndex photoBoothClusterIndex, @Lazy PhotoBoothTagIndex photoBoothTagIndex,
+                                    @Lazy PhotoBoothIndexSyncService photoBoothIndexSyncService) {
+        this.photoBoothGeoIndex = photoBoothGeoIndex;
+        this.photoBoothClusterIndex = photoBoothClusterIndex;
+        this.photoBoothTagIndex = photoBoothTagIndex;
+        this.photoBoothIndexSyncService = photoBoothIndexSyncService;
+    }
+
+    @PostLoad
+    public void onLoad(PhotoBoothEntity photoBoothEntity) {
+        photoBoothEntity.markIndexed();
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(PhotoBoothEntity photoBoothEntity) {
+        boolean locationChanged = photoBoothEntity.isLocationChanged();
+        boolean tagChanged = photoBoothEntity.isTagChanged();
+        photoBoothEntity.markIndexed();
+        if (locationChanged == false && tagChanged == false) {
+            return;
+        }
+        if (locationChanged && photoBoothGeoIndex.isAvailable()) {
+            afterCommit(() -> photoBoothGeoIndex.apply(photoBoothEntity));
+        }
+        if (locationChanged && photoBoothClusterIndex.isAvailable()) {
+            afterCommit(() -> photoBoothClusterIndex.apply(photoBoothEntity));
+        }
+        if (tagChanged && photoBoothTagIndex.isAvailable()) {
+            afterCommit(() -> photoBoothTagIndex.apply(photoBoothEntity));
+        }
+        photoBoothIndexSyncService.publishAfterCommit(photoBoothEntity.getId());
+    }
+
+    @PostRemove
+    public void onRemove(PhotoBoothEntity photoBoothEntity) {
+        if (photoBoothGeoIndex.isAvailable()) {
+            afterCommit(() -> photoBoothGeoIndex.remove(photoBoothEntity.getId()));
+        }
+        if (photoBoothClusterIndex.isAvailable()) {
+            afterCommit(() -> photoBoothClusterIndex.remove(photoBoothEntity.getId()));
+        }
+        photoBoothIndexSyncService.publishAfterCommit(photoBoothEntity.getId());
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.hot6.phopa.core.domain.photobooth.index;
+
+import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.utils.GeoCellUtil;
+import com.hot6.phopa.core.common.utils.GeometryUtil;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothDistanceDTO;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothNativeQueryDTO;
+import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+
+/**
+ * ACTIVE 포토부스 좌표를 격자(cell) 단위로 정렬해 primitive 배열로 들고 있는 in-memory 공간 인덱스
+ * 변경은 copy-on-write 로 snapshot 을 새로 만들고, 조회는 lock 없이 현재 snapshot 을 읽음.
+ * 거리 단위는 SQL 경로(ST_Distance_Sphere / 1000)와 동일한 km.
+ */
+@Slf4j
+@Component
+public class PhotoBoothGeoIndex {
+
+    // 위도 1도 당 거리(km)
+    private static final double KM_PER_DEGREE = 111.195;
+
+    // 경도 방향 거리를 위도 기준 cos 로 근사하므로 종료 판정은 약간 보수적으로 함
+    private static final double COVERED_DISTANCE_RATIO = 0.99;
+
+    private final PhotoBoothRepository photoBoothRepository;
+
+    private final boolean enabled;
+
+    private final double cellSize;
+
+    private volatile Snapshot snapshot;
+
+    public PhotoBoothGeoIndex(PhotoBoothRepository photoBoothRepository,
+                              @Value("${photo-booth.geo-index.enabled:false}") boolean enabled,
+                              @Value("${photo-booth.geo-index.cell-size:0.01}") double cellSize) {
+        this.photoBoothRepository = photoBoothRepository;
+        this.enabled = enabled;
+        this.cellSize = cellSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 다른 노드의 변경 전파가 유실된 경우를 위해 주기적으로 DB 기준으로 다시 만듦
+     */
+    @Scheduled(fixedDelayString = "${photo-booth.geo-index.rebuild-interval:600000}", initialDelayString = "${photo-booth.geo-index.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        if (isAvailable()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        List<PhotoBoothEntity> photoBoothEntityList = photoBoothRepository.findAllByStatus(Status.ACTIVE);
+        int size = photoBoothEntityList.size();
+        long[] ids = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            PhotoBoothEntity photoBoothEntity = photoBoothEntityList.get(i);
+            ids[i] = photoBoothEntity.getId();
+            latitudes[i] = photoBoothEntity.getLatitude();
+            longitudes[i] = photoBoothEntity.getLongitude();
+        }
+        this.snapshot = Snapshot.build(ids, latitudes, longitudes, size, cellSize);
+        log.info("photo booth geo index built. size : {}, cells : {}", size, snapshot.cellKeys.length);
+    }
+
+    /**
+     * 인덱스가 켜져 있고 빌드가 끝난 경우에만 true, 아니면 SQL 경로를 사용해야 함.
+     */
+    public boolean isAvailable() {
+        return enabled && snapshot != null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<PhotoBoothNativeQueryDTO> findIdsByGeo(double latitude, double longitude, double distance) {
+        Snapshot current = this.snapshot;
+        List<PhotoBoothNativeQueryDTO> result = new ArrayList<>();
+        if (current == null) {
+            return result;
+        }
+        double latitudeDelta = distance / KM_PER_DEGREE;
+        double longitudeDelta = latitudeDelta / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        int minRow = GeoCellUtil.row(latitude - latitudeDelta, cellSize);
+        int maxRow = GeoCellUtil.row(latitude + latitudeDelta, cellSize);
+        int minColumn = GeoCellUtil.column(longitude - longitudeDelta, cellSize);
+        int maxColumn = GeoCellUtil.column(longitude + longitudeDelta, cellSize);
+        // cell 단위로 거리를 한 번에 계산, 버퍼는 조회마다 한 번만 할당
+        double[] distances = new double[current.maxCellSize];
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = Arrays.binarySearch(current.cellKeys, GeoCellUtil.key(row, column));
+                if (cell < 0) {
+                    continue;
+                }
+                int from = current.cellStarts[cell];
+                int to = current.cellStarts[cell + 1];
+                GeometryUtil.haversine(latitude, longitude, current.latitudes, current.longitudes, current.cosLatitudes, from, to, distances);
+                for (int i = from; i < to; i++) {
+                    if (distances[i - from] <= distance) {
+                        result.add(PhotoBoothDistanceDTO.of(current.ids[i], distances[i - from]));
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(PhotoBoothNativeQueryDTO::getDistance));
+        return result;
+    }
+
+    /**
+     * 중심 cell 부터 한 겹(ring)씩 넓혀가며 가까운 k 개를 찾음.
+     * 지금까지 본 정사각형 영역 밖의 점은 적어도 영역 경계까지의 거리보다 멀기 때문에,
+     * k 번째 거리가 그 경계 거리 이하가 되면 더 넓히지 않고 종료.
+     */
+    public List<PhotoBoothNativeQueryDTO> findNearest(double latitude, double longitude, int k, double maxDistance, LongPredicate filter) {
+        Snapshot current = this.snapshot;
+        List<PhotoBoothNativeQueryDTO> result = new ArrayList<>();
+        if (current == null || k <= 0) {
+            return result;
+        }
+        // 먼 것이 head 에 오는 max-heap, 크기는 k 로 유지
+        PriorityQueue<PhotoBoothNativeQueryDTO> heap = new PriorityQueue<>(k, Comparator.comparingDouble(PhotoBoothNativeQueryDTO::getDistance).reversed());
+        int centerRow = GeoCellUtil.row(latitude, cellSize);
+        int centerColumn = GeoCellUtil.column(longitude, cellSize);
+        double longitudeKmPerDegree = KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double[] distances = new double[current.maxCellSize];
+        for (int ring = 0; ; ring++) {
+            int minRow = centerRow - ring;
+            int maxRow = centerRow + ring;
+            int minColumn = centerColumn - ring;
+            int maxColumn = centerColumn + ring;
+            for (int row = minRow; row <= maxRow; row++) {
+                boolean edgeRow = row == minRow || row == maxRow;
+                for (int column = minColumn; column <= maxColumn; column += edgeRow ? 1 : Math.max(maxColumn - minColumn, 1)) {
+                    collectNearest(current, GeoCellUtil.key(row, column), latitude, longitude, k, maxDistance, filter, heap, distances);
+                }
+            }
+            double coveredDistance = Math.min(
+                    Math.min(latitude - GeoCellUtil.minLatitude(minRow, cellSize), GeoCellUtil.minLatitude(maxRow + 1, cellSize) - latitude) * KM_PER_DEGREE,
+                    Math.min(longitude - GeoCellUtil.minLongitude(minColumn, cellSize), GeoCellUtil.minLongitude(maxColumn + 1, cellSize) - longitude) * longitudeKmPerDegree
+            ) * COVERED_DISTANCE_RATIO;
+            if (coveredDistance >= maxDistance || (heap.size() == k && heap.peek().getDistance() <= coveredDistance)) {
+                break;
+            }
+        }
+        result.addAll(heap);
+        result.sort(Comparator.comparingDouble(PhotoBoothNativeQueryDTO::getDistance));
+        return result;
+    }
+
+    private void collectNearest(Snapshot current, long cellKey, double latitude, double longitude, int k, double maxDistance, LongPredicate filter, PriorityQueue<PhotoBoothNativeQueryDTO> heap, double[] distances) {
+        int cell = Arrays.binarySearch(current.cellKeys, cellKey);
+        if (cell < 0) {
+            return;
+        }
+        int from = current.cellStarts[cell];
+        int to = current.cellStarts[cell + 1];
+        GeometryUtil.haversine(latitude, longitude, current.latitudes, current.longitudes, current.cosLatitudes, from, to, distances);
+        for (int i = from; i < to; i++) {
+            double photoBoothDistance = distances[i - from];
+            if (photoBoothDistance > maxDistance || (heap.size() == k && photoBoothDistance >= heap.peek().getDistance()) || filter.test(current.ids[i]) == false) {
+                continue;
+            }
+            heap.offer(PhotoBoothDistanceDTO.of(current.ids[i], photoBoothDistance));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+    }
+
+    public void apply(PhotoBoothEntity photoBoothEntity) {
+        if (Status.ACTIVE.equals(photoBoothEntity.getStatus())) {
+            put(photoBoothEntity.getId(), photoBoothEntity.getLatitude(), photoBoothEntity.getLongitude());
+        } else {
+            remove(photoBoothEntity.getId());
+        }
+    }
+
+    public synchronized void put(long id, double latitude, double longitude) {
+        Snapshot current = this.snapshot;
+        if (current == null || current.contains(id, latitude, longitude, cellSize)) {
+            return;
+        }
+        int size = current.ids.length;
+        long[] ids = new long[size + 1];
+        double[] latitudes = new double[size + 1];
+        double[] longitudes = new double[size + 1];
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            if (current.ids[i] == id) {
+                continue;
+            }
+            ids[index] = current.ids[i];
+            latitudes[index] = current.latitudes[i];
+            longitudes[index] = current.longitudes[i];
+            index++;
+        }
+        ids[index] = id;
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        this.snapshot = Snapshot.build(ids, latitudes, longitudes, index + 1, cellSize);
+    }
+
+    public synchronized void remove(long id) {
+        Snapshot current = this.snapshot;
+        if (current == null) {
+            return;
+        }
+        int size = current.ids.length;
+        long[] ids = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            if (current.ids[i] == id) {
+                continue;
+            }
+            ids[index] = current.ids[i];
+            latitudes[index] = current.latitudes[i];
+            longitudes[index] = current.longitudes[i];
+            index++;
+        }
+        if (index != size) {
+            this.snapshot = Snapshot.build(ids, latitudes, longitudes, index, cellSize);
+        }
+    }
+
+    private static final class Snapshot {
+        private final long[] ids;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        // 위도의 cos, 거리 계산 시 점마다 다시 구하지 않도록 미리 계산
+        private final double[] cosLatitudes;
+        // 정렬된 cell key 와 각 cell 의 시작 offset (cellStarts.length == cellKeys.length + 1)
+        private final long[] cellKeys;
+        private final int[] cellStarts;
+        private final int maxCellSize;
+
+        private Snapshot(long[] ids, double[] latitudes, double[] longitudes, long[] cellKeys, int[] cellStarts) {
+            this.ids = ids;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.cosLatitudes = new double[latitudes.length];
+            for (int i = 0; i < latitudes.length; i++) {
+                cosLatitudes[i] = Math.cos(Math.toRadians(latitudes[i]));
+            }
+            this.cellKeys = cellKeys;
+            this.cellStarts = cellStarts;
+            int max = 0;
+            for (int cell = 0; cell < cellKeys.length; cell++) {
+                max = Math.max(max, cellStarts[cell + 1] - cellStarts[cell]);
+            }
+            this.maxCellSize = max;
+        }
+
+        // 같은 좌표로 이미 들어 있으면 다시 만들 필요 없음 (태그만 바뀐 포토부스의 동기화 메세지 등)
+        private boolean contains(long id, double latitude, double longitude, double cellSize) {
+            int cell = Arrays.binarySearch(cellKeys, GeoCellUtil.key(latitude, longitude, cellSize));
+            if (cell < 0) {
+                return false;
+            }
+            for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                if (ids[i] == id) {
+                    return latitudes[i] == latitude && longitudes[i] == longitude;
+                }
+            }
+            return false;
+        }
+
+        private static Snapshot build(long[] sourceIds, double[] sourceLatitudes, double[] sourceLongitudes, int size, double cellSize) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = GeoCellUtil.key(sourceLatitudes[i], sourceLongitudes[i], cellSize);
+            }
+            long[] cellKeys = Arrays.copyOf(keys, size);
+            Arrays.sort(cellKeys);
+            int cellCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (cellCount == 0 || cellKeys[cellCount - 1] != cellKeys[i]) {
+                    cellKeys[cellCount++] = cellKeys[i];
+                }
+            }
+            // cell key 는 64bit 를 다 쓰기 때문에 cell 순번(상위 32bit)과 원래 위치(하위 32bit)를 묶어 primitive 정렬
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) Arrays.binarySearch(cellKeys, 0, cellCount, keys[i]) << 32) | i;
+            }
+            Arrays.sort(order);
+
+            long[] ids = new long[size];
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            int[] cellStarts = new int[cellCount + 1];
+            int previousCell = -1;
+            for (int i = 0; i < size; i++) {
+                int cell = (int) (order[i] >>> 32);
+                int source = (int) order[i];
+                ids[i] = sourceIds[source];
+                latitudes[i] = sourceLatitudes[source];
+                longitudes[i] = sourceLongitudes[source];
+                if (cell != previousCell) {
+                    cellStarts[cell] = i;
+                    previousCell = cell;
+                }
+            }
+            cellStarts[cellCount] = size;
+            return new Snapshot(ids, latitudes, longitudes, Arrays.copyOf(cellKeys, cellCount), cellStarts);
+        }
+    }
+}
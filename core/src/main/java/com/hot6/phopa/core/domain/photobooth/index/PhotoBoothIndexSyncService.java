@@ -0,0 +1,114 @@
+package com.hot6.phopa.core.domain.photobooth.index;
+
+import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 한 노드에서 바뀐 포토부스를 다른 노드의 in-memory 인덱스(geo, cluster, tag)에도 반영하기 위한 pub/sub
+ * 메세지에는 포토부스 id 만 담고, 받은 노드가 DB 에서 다시 읽어 반영함.
+ * 전파가 유실되면 각 인덱스의 주기적 rebuild 에서 맞춰짐.
+ */
+@Slf4j
+@Service
+public class PhotoBoothIndexSyncService implements MessageListener {
+
+    public static final String CHANNEL = "photo-booth:index";
+
+    private static final String DELIMITER = "\t";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final PhotoBoothRepository photoBoothRepository;
+
+    private final PhotoBoothGeoIndex photoBoothGeoIndex;
+
+    private final PhotoBoothClusterIndex photoBoothClusterIndex;
+
+    private final PhotoBoothTagIndex photoBoothTagIndex;
+
+    // 자기가 보낸 메세지는 무시하기 위한 노드 id
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public PhotoBoothIndexSyncService(RedisTemplate<String, String> redisTemplate,
+                                      PhotoBoothRepository photoBoothRepository,
+                                      PhotoBoothGeoIndex photoBoothGeoIndex,
+                                      PhotoBoothClusterIndex photoBoothClusterIndex,
+                                      PhotoBoothTagIndex photoBoothTagIndex) {
+        this.redisTemplate = redisTemplate;
+        this.photoBoothRepository = photoBoothRepository;
+        this.photoBoothGeoIndex = photoBoothGeoIndex;
+        this.photoBoothClusterIndex = photoBoothClusterIndex;
+        this.photoBoothTagIndex = photoBoothTagIndex;
+    }
+
+    /**
+     * 트랜잭션 안이면 commit 이후에 알림
+     */
+    public void publishAfterCommit(Long photoBoothId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(photoBoothId);
+                }
+            });
+        } else {
+            publish(photoBoothId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // nodeId, photoBoothId
+        String[] token = new String(message.getBody(), StandardCharsets.UTF_8).split(DELIMITER, -1);
+        if (token.length < 2 || nodeId.equals(token[0])) {
+            return;
+        }
+        try {
+            refresh(Long.valueOf(token[1]));
+        } catch (RuntimeException e) {
+            log.warn("photo booth index sync failed. message : {}", token[1], e);
+        }
+    }
+
+    private void refresh(Long photoBoothId) {
+        Optional<PhotoBoothEntity> photoBoothEntity = photoBoothRepository.findById(photoBoothId);
+        if (photoBoothGeoIndex.isAvailable()) {
+            if (photoBoothEntity.isPresent()) {
+                photoBoothGeoIndex.apply(photoBoothEntity.get());
+            } else {
+                photoBoothGeoIndex.remove(photoBoothId);
+            }
+        }
+        if (photoBoothClusterIndex.isAvailable()) {
+            if (photoBoothEntity.isPresent()) {
+                photoBoothClusterIndex.apply(photoBoothEntity.get());
+            } else {
+                photoBoothClusterIndex.remove(photoBoothId);
+            }
+        }
+        // 리뷰 태그도 있어서 엔티티가 아니라 DB 의 포토부스 - 태그 쌍으로 다시 읽음
+        if (photoBoothTagIndex.isAvailable()) {
+            photoBoothTagIndex.refresh(photoBoothId);
+        }
+    }
+
+    private void publish(Long photoBoothId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + DELIMITER + photoBoothId);
+        } catch (Exception e) {
+            log.warn("photo booth index sync publish failed. photoBoothId : {}", photoBoothId, e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.hot6.phopa.core.domain.photobooth.index;
+
+import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothTagNativeQueryDTO;
+import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 태그 id -> 포토부스 id bitmap 역색인 (포토부스 브랜드 태그 + 리뷰 태그)
+ * 조회는 lock 없이 하기 때문에 bitmap 은 직접 수정하지 않고 복사본을 수정해 교체함.
+ */
+@Slf4j
+@Component
+public class PhotoBoothTagIndex {
+
+    private final PhotoBoothRepository photoBoothRepository;
+
+    private final boolean enabled;
+
+    private volatile Map<Long, Roaring64Bitmap> tagBitmapMap;
+
+    // 포토부스 id -> 태그 id, 갱신 시 빠진 태그의 bitmap 에서 지우기 위해 들고 있음
+    private volatile Map<Long, Set<Long>> photoBoothTagMap;
+
+    public PhotoBoothTagIndex(PhotoBoothRepository photoBoothRepository,
+                              @Value("${photo-booth.tag-index.enabled:false}") boolean enabled) {
+        this.photoBoothRepository = photoBoothRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 다른 노드의 변경 전파가 유실된 경우를 위해 주기적으로 DB 기준으로 다시 만듦
+     */
+    @Scheduled(fixedDelayString = "${photo-booth.tag-index.rebuild-interval:600000}", initialDelayString = "${photo-booth.tag-index.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        if (isAvailable()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        Map<Long, Roaring64Bitmap> newTagBitmapMap = new ConcurrentHashMap<>();
+        Map<Long, Set<Long>> newPhotoBoothTagMap = new ConcurrentHashMap<>();
+        for (PhotoBoothTagNativeQueryDTO photoBoothTag : photoBoothRepository.findAllPhotoBoothTag()) {
+            newTagBitmapMap.computeIfAbsent(photoBoothTag.getTagId(), tagId -> new Roaring64Bitmap()).addLong(photoBoothTag.getPhotoBoothId());
+            newPhotoBoothTagMap.computeIfAbsent(photoBoothTag.getPhotoBoothId(), photoBoothId -> new HashSet<>()).add(photoBoothTag.getTagId());
+        }
+        newTagBitmapMap.values().forEach(Roaring64Bitmap::runOptimize);
+        this.tagBitmapMap = newTagBitmapMap;
+        this.photoBoothTagMap = newPhotoBoothTagMap;
+        log.info("photo booth tag index built. tags : {}, photo booths : {}", newTagBitmapMap.size(), newPhotoBoothTagMap.size());
+    }
+
+    public boolean isAvailable() {
+        return enabled && tagBitmapMap != null;
+    }
+
+    /**
+     * tagIdSet 중 하나라도 가진 포토부스 id (SQL 의 tag_id IN OR review_tag EXISTS 와 같은 조건)
+     */
+    public Roaring64Bitmap findPhotoBoothIds(Set<Long> tagIdSet) {
+        Roaring64Bitmap result = new Roaring64Bitmap();
+        Map<Long, Roaring64Bitmap> current = this.tagBitmapMap;
+        if (current == null) {
+            return result;
+        }
+        for (Long tagId : tagIdSet) {
+            Roaring64Bitmap bitmap = current.get(tagId);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    public void apply(PhotoBoothEntity photoBoothEntity) {
+        if (Status.ACTIVE.equals(photoBoothEntity.getStatus()) == false) {
+            update(photoBoothEntity.getId(), Collections.emptySet());
+        } else if (photoBoothEntity.getTag() != null) {
+            Set<Long> tagIdSet = new HashSet<>(photoBoothTagMap.getOrDefault(photoBoothEntity.getId(), Collections.emptySet()));
+            if (tagIdSet.add(photoBoothEntity.getTag().getId())) {
+                update(photoBoothEntity.getId(), tagIdSet);
+            }
+        }
+    }
+
+    /**
+     * 리뷰 태그가 바뀐 포토부스를 DB 기준으로 다시 읽어 반영. 트랜잭션 안이면 commit 이후에 반영함.
+     */
+    public void refreshAfterCommit(Long photoBoothId) {
+        if (isAvailable() == false) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(photoBoothId);
+                }
+            });
+        } else {
+            refresh(photoBoothId);
+        }
+    }
+
+    public void refresh(Long photoBoothId) {
+        Set<Long> tagIdSet = new HashSet<>();
+        for (PhotoBoothTagNativeQueryDTO photoBoothTag : photoBoothRepository.findPhotoBoothTagByPhotoBoothId(photoBoothId)) {
+            tagIdSet.add(photoBoothTag.getTagId());
+        }
+        update(photoBoothId, tagIdSet);
+    }
+
+    private synchronized void update(long photoBoothId, Set<Long> tagIdSet) {
+        Map<Long, Roaring64Bitmap> currentTagBitmapMap = this.tagBitmapMap;
+        if (currentTagBitmapMap == null) {
+            return;
+        }
+        Set<Long> oldTagIdSet = photoBoothTagMap.getOrDefault(photoBoothId, Collections.emptySet());
+        for (Long tagId : oldTagIdSet) {
+            if (tagIdSet.contains(tagId) == false) {
+                Roaring64Bitmap bitmap = currentTagBitmapMap.get(tagId);
+                if (bitmap == null) {
+                    continue;
+                }
+                Roaring64Bitmap newBitmap = bitmap.clone();
+                newBitmap.removeLong(photoBoothId);
+                if (newBitmap.isEmpty()) {
+                    currentTagBitmapMap.remove(tagId);
+                } else {
+                    currentTagBitmapMap.put(tagId, newBitmap);
+                }
+            }
+        }
+        for (Long tagId : tagIdSet) {
+            if (oldTagIdSet.contains(tagId) == false) {
+                Roaring64Bitmap bitmap = currentTagBitmapMap.get(tagId);
+                Roaring64Bitmap newBitmap = bitmap == null ? new Roaring64Bitmap() : bitmap.clone();
+                newBitmap.addLong(photoBoothId);
+                currentTagBitmapMap.put(tagId, newBitmap);
+            }
+        }
+        if (tagIdSet.isEmpty()) {
+            photoBoothTagMap.remove(photoBoothId);
+        } else {
+            photoBoothTagMap.put(photoBoothId, new HashSet<>(tagIdSet));
+        }
+    }
+}
@@ -2,14 +2,18 @@ package com.hot6.phopa.core.domain.photobooth.model.entity;
 
 import com.hot6.phopa.core.common.model.entity.BaseTimeEntity;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.utils.GeometryUtil;
+import com.hot6.phopa.core.domain.photobooth.index.PhotoBoothEntityListener;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewEntity;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewImageEntity;
 import com.hot6.phopa.core.domain.tag.model.entity.TagEntity;
 import lombok.*;
 import org.hibernate.annotations.DynamicUpdate;
+import org.locationtech.jts.geom.Point;
 
 import javax.persistence.*;
 import java.io.Serializable;
+import java.util.Objects;
 import java.util.Set;
 
 @Getter
@@ -19,6 +23,7 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @DynamicUpdate
+@EntityListeners(PhotoBoothEntityListener.class)
 @Table(name = "photo_booth")
 public class PhotoBoothEntity extends BaseTimeEntity implements Serializable {
     @Id
@@ -41,6 +46,9 @@ public class PhotoBoothEntity extends BaseTimeEntity implements Serializable {
     @Column(name = "longitude")
     private Double longitude;
 
+    @Column(name = "point", nullable = false, columnDefinition = "POINT SRID 4326")
+    private Point point;
+
     @Column(name = "like_count")
     private Integer likeCount;
 
@@ -64,6 +72,10 @@ public class PhotoBoothEntity extends BaseTimeEntity implements Serializable {
     @Column(name = "status")
     private Status status;
 
+    // 변경 버전 (delta sync 용), PhotoBoothVersionService 에서만 갱신
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tag_id")
     private TagEntity tag;
@@ -75,24 +87,60 @@ public class PhotoBoothEntity extends BaseTimeEntity implements Serializable {
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "photoBooth", orphanRemoval = true)
     private Set<PhotoBoothLikeEntity> photoBoothLikeSet;
 
-    public void updateLikeCount(int count) {
-        this.likeCount += count;
+    // in-memory 인덱스(geo, cluster, tag)에 마지막으로 반영된 상태/좌표/브랜드 태그, 카운터 등 다른 컬럼만 바뀐 경우는 인덱스를 건드리지 않기 위해 들고 있음
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Status indexedStatus;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Double indexedLatitude;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Double indexedLongitude;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Long indexedTagId;
+
+    // latitude, longitude 가 바뀌면 spatial index 용 point 도 같이 맞춰줌
+    @PrePersist
+    @PreUpdate
+    public void syncPoint() {
+        if (latitude != null && longitude != null) {
+            this.point = GeometryUtil.createPoint(latitude, longitude);
+        }
     }
 
-    public void updateReviewCount(int count) {
-        this.reviewCount += count;
+    public void updateReviewImage(ReviewImageEntity reviewImageEntity) {
+        this.reviewImage = reviewImageEntity;
     }
 
-    public void updateStarScore(Float totalStarScore) {
-        this.totalStarScore = totalStarScore;
-        this.starScore = this.totalStarScore == 0.0f ? 0.0f : this.totalStarScore / this.reviewCount;
+    public void updateVersion(long version) {
+        this.version = version;
     }
 
-    public void updateReviewImageCount(int count) {
-        this.reviewImageCount += count;
+    public void markIndexed() {
+        this.indexedStatus = status;
+        this.indexedLatitude = latitude;
+        this.indexedLongitude = longitude;
+        this.indexedTagId = tagId();
     }
 
-    public void updateReviewImage(ReviewImageEntity reviewImageEntity) {
-        this.reviewImage = reviewImageEntity;
+    public boolean isLocationChanged() {
+        return status != indexedStatus || Objects.equals(latitude, indexedLatitude) == false || Objects.equals(longitude, indexedLongitude) == false;
+    }
+
+    public boolean isTagChanged() {
+        return status != indexedStatus || Objects.equals(tagId(), indexedTagId) == false;
+    }
+
+    private Long tagId() {
+        return tag == null ? null : tag.getId();
     }
 }
@@ -2,11 +2,15 @@ package com.hot6.phopa.core.domain.photobooth.repository;
 
 import com.hot6.phopa.core.common.model.dto.PageableParam;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.utils.GeoBoundary;
 import com.hot6.phopa.core.common.utils.PointUtil;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothClusterDTO;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothGeoDTO;
+import com.hot6.phopa.core.domain.photobooth.model.dto.PhotoBoothWithDistanceDTO;
 import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
-import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface PhotoBoothCustomRepository {
@@ -16,7 +20,19 @@ public interface PhotoBoothCustomRepository {
 
     PhotoBoothEntity findByIdWithTag(Long photoBoothId);
 
-    Page<PhotoBoothEntity> findByPhotoBoothIdAndColumn(List<Long> photoBoothIds, Status status, Set<Long> tagIdSet, PageableParam pageable);
+    PhotoBoothWithDistanceDTO findByGeoAndColumn(double latitude, double longitude, double distance, Status status, Set<Long> tagIdSet, PageableParam pageable);
 
-    Integer getCountByPhotoBoothIdAndColumn(List<Long> photoBoothIdList, Status status, Set<Long> tagIdSet);
+    List<PhotoBoothGeoDTO> findGeoByGeoAndColumn(double latitude, double longitude, double distance, Status status, Set<Long> tagIdSet);
+
+    List<PhotoBoothEntity> findAllByBoundary(GeoBoundary boundary, int limit);
+
+    List<PhotoBoothClusterDTO> findClusterByBoundary(GeoBoundary boundary, double cellSize);
+
+    List<PhotoBoothEntity> findAllByPhotoBoothIdList(List<Long> photoBoothIdList);
+
+    long countByGeoAndColumn(double latitude, double longitude, double distance, Status status, Set<Long> tagIdSet, List<GeoBoundary> excludeBoundaryList);
+
+    Map<Long, Long> countByBoundaryAndColumnGroupByCell(List<GeoBoundary> boundaryList, double cellSize, Status status, Set<Long> tagIdSet);
+
+    long nextVersion();
 }
@@ -0,0 +1,61 @@
+package com.hot6.phopa.core.domain.photobooth.repository;
+
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothExportDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+/**
+ * 전체 카탈로그 export 용 JDBC 조회
+ * 영속성 컨텍스트에 엔티티를 쌓지 않도록 JPA 대신 forward-only / read-only cursor 로 한 row 씩 넘겨줌.
+ */
+@Repository
+public class PhotoBoothExportRepository {
+
+    private static final String EXPORT_SQL = "SELECT p.id, p.name, p.jibun_address, p.road_address, p.latitude, p.longitude, "
+            + "p.like_count, p.review_count, p.star_score, p.tag_id, p.version "
+            + "FROM photo_booth p WHERE p.status = 'ACTIVE' ORDER BY p.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public PhotoBoothExportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL Connector/J 는 fetch size 가 Integer.MIN_VALUE 일 때만 결과를 한 번에 받지 않고 row 단위로 streaming 함
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * 마지막으로 발급된 포토부스 변경 버전, 이 값이 같으면 export 결과도 같음
+     */
+    public long getCatalogueVersion() {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM photo_booth_version_sequence WHERE id = 1", Long.class);
+        return version == null ? 0L : version;
+    }
+
+    /**
+     * streaming 중에는 connection 을 계속 잡고 있으므로 consumer 에서 오래 걸리는 작업은 하지 않아야 함
+     */
+    public void streamAll(Consumer<PhotoBoothExportDTO> consumer) {
+        streamingJdbcTemplate.query(EXPORT_SQL, (RowCallbackHandler) rs -> {
+            consumer.accept(PhotoBoothExportDTO.of(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("jibun_address"),
+                    rs.getString("road_address"),
+                    rs.getDouble("latitude"),
+                    rs.getDouble("longitude"),
+                    rs.getObject("like_count", Integer.class),
+                    rs.getObject("review_count", Integer.class),
+                    rs.getObject("star_score", Float.class),
+                    rs.getObject("tag_id", Long.class),
+                    rs.getLong("version")
+            ));
+        });
+    }
+}
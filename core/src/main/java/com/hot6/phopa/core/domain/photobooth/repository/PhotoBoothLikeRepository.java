@@ -2,6 +2,9 @@ package com.hot6.phopa.core.domain.photobooth.repository;
 
 import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothLikeEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +12,18 @@ import java.util.List;
 @Repository
 public interface PhotoBoothLikeRepository extends JpaRepository<PhotoBoothLikeEntity, Long>, PhotoBoothLikeCustomRepository{
     PhotoBoothLikeEntity findOneByPhotoBoothIdAndUserId(Long photoBoothId, Long userId);
+
+    @Query("SELECT photoBoothLike.photoBooth.id FROM PhotoBoothLikeEntity photoBoothLike where photoBoothLike.user.id = :userId")
+    List<Long> findPhotoBoothIdListByUserId(@Param("userId") Long userId);
+
+    /**
+     * 없는 포토부스면 넣지 않음. 이미 좋아요한 경우(unique index)와 없는 포토부스 모두 0
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO photo_booth_like (photo_booth_id, user_id) SELECT id, :userId FROM photo_booth WHERE id = :photoBoothId", nativeQuery = true)
+    int insertIgnore(@Param(value = "photoBoothId") Long photoBoothId, @Param(value = "userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM photo_booth_like WHERE photo_booth_id = :photoBoothId AND user_id = :userId", nativeQuery = true)
+    int deleteByPhotoBoothIdAndUserId(@Param(value = "photoBoothId") Long photoBoothId, @Param(value = "userId") Long userId);
 }
\ No newline at end of file
@@ -1,26 +1,75 @@
 package com.hot6.phopa.core.domain.photobooth.repository;
 
-import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothNativeQueryDTO;
+import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothTagNativeQueryDTO;
 import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PhotoBoothRepository extends JpaRepository<PhotoBoothEntity, Long>, PhotoBoothCustomRepository {
 
+    List<PhotoBoothEntity> findAllByStatus(Status status);
+
+    /**
+     * 정렬은 pageable 의 sort 로 지정 (캐시 warm-up 대상 선정 용)
+     */
+    @Query("select p.id from PhotoBoothEntity p where p.status = :status")
+    List<Long> findIdsByStatus(@Param(value = "status") Status status, Pageable pageable);
+
+    /**
+     * (version, id) 보다 뒤에 바뀐 포토부스, 비활성화된 것도 포함
+     */
+    @Query("select p from PhotoBoothEntity p where p.version > :since or (p.version = :since and p.id > :lastId) order by p.version, p.id")
+    List<PhotoBoothEntity> findAllByVersionAfter(@Param(value = "since") long since, @Param(value = "lastId") long lastId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE photo_booth SET version = :version WHERE id IN (:photoBoothIdList)", nativeQuery = true)
+    int updateVersion(@Param(value = "photoBoothIdList") Collection<Long> photoBoothIdList, @Param(value = "version") long version);
+
+    /**
+     * 카운터는 엔티티를 읽어 더하지 않고 SQL 에서 더함 (동시에 눌러도 유실 없음)
+     */
+    @Modifying
+    @Query(value = "UPDATE photo_booth SET like_count = like_count + :delta WHERE id = :photoBoothId", nativeQuery = true)
+    int updateLikeCount(@Param(value = "photoBoothId") Long photoBoothId, @Param(value = "delta") int delta);
+
+    /**
+     * MySQL 은 SET 을 왼쪽부터 적용하고 뒤의 식은 바뀐 값을 읽으므로 star_score 는 갱신된 review_count, total_star_score 로 계산됨
+     */
+    @Modifying
+    @Query(value = "UPDATE photo_booth SET review_count = review_count + :countDelta, total_star_score = total_star_score + :starScoreDelta, "
+            + "star_score = IF(review_count = 0 OR total_star_score = 0, 0, total_star_score / review_count) WHERE id = :photoBoothId", nativeQuery = true)
+    int updateReviewCount(@Param(value = "photoBoothId") Long photoBoothId, @Param(value = "countDelta") int countDelta, @Param(value = "starScoreDelta") float starScoreDelta);
+
+    @Modifying
+    @Query(value = "UPDATE photo_booth SET review_image_count = review_image_count + :delta WHERE id = :photoBoothId", nativeQuery = true)
+    int updateReviewImageCount(@Param(value = "photoBoothId") Long photoBoothId, @Param(value = "delta") int delta);
+
+    /**
+     * 포토부스 - 태그 쌍 (포토부스 브랜드 태그 + 리뷰 태그)
+     */
+    @Query(
+            value = "SELECT p.id AS photoBoothId, p.tag_id AS tagId FROM photo_booth p WHERE p.status = 'ACTIVE' AND p.tag_id IS NOT NULL "
+                    + "UNION "
+                    + "SELECT rt.photo_booth_id AS photoBoothId, rt.tag_id AS tagId FROM review_tag rt JOIN photo_booth p ON p.id = rt.photo_booth_id WHERE p.status = 'ACTIVE'",
+            nativeQuery = true
+    )
+    List<PhotoBoothTagNativeQueryDTO> findAllPhotoBoothTag();
+
     @Query(
-            value = "SELECT DISTINCT p.id AS id, ST_DISTANCE(POINT(:lon, :lat), POINT(p.longitude, p.latitude)) AS distance " +
-                    "FROM photo_booth as p "
-                    + "LEFT JOIN review r ON r.photo_booth_id = p.id "
-                    + "LEFT JOIN review_tag rt ON rt.review_id = r.id "
-                    + "LEFT JOIN tag t ON rt.tag_id = t.id "
-                    + "WHERE ST_DISTANCE(POINT(:lon, :lat), POINT(p.longitude, p.latitude)) <= :distance order by distance",
+            value = "SELECT p.id AS photoBoothId, p.tag_id AS tagId FROM photo_booth p WHERE p.id = :photoBoothId AND p.status = 'ACTIVE' AND p.tag_id IS NOT NULL "
+                    + "UNION "
+                    + "SELECT rt.photo_booth_id AS photoBoothId, rt.tag_id AS tagId FROM review_tag rt JOIN photo_booth p ON p.id = rt.photo_booth_id WHERE rt.photo_booth_id = :photoBoothId AND p.status = 'ACTIVE'",
             nativeQuery = true
     )
-    List<PhotoBoothNativeQueryDTO> findIdsByGeo(@Param(value = "lat") double lat, @Param(value = "lon") double lon, @Param(value = "distance") Double distance);
+    List<PhotoBoothTagNativeQueryDTO> findPhotoBoothTagByPhotoBoothId(@Param(value = "photoBoothId") Long photoBoothId);
 
 }
@@ -2,7 +2,13 @@ package com.hot6.phopa.core.domain.photobooth.repository.impl;
 
 import com.hot6.phopa.core.common.model.dto.PageableParam;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.utils.GeoBoundary;
+import com.hot6.phopa.core.common.utils.GeoCellUtil;
+import com.hot6.phopa.core.common.utils.GeometryUtil;
 import com.hot6.phopa.core.common.utils.PointUtil;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothClusterDTO;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothGeoDTO;
+import com.hot6.phopa.core.domain.photobooth.model.dto.PhotoBoothWithDistanceDTO;
 import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
 import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothCustomRepository;
 import com.querydsl.core.BooleanBuilder;
@@ -11,14 +17,15 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.apache.commons.collections4.CollectionUtils;
-import org.springframework.data.domain.Page;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-import java.util.Set;
+import javax.persistence.Query;
+import java.util.*;
 
 import static com.hot6.phopa.core.domain.photobooth.model.entity.QPhotoBoothEntity.photoBoothEntity;
 import static com.hot6.phopa.core.domain.photobooth.model.entity.QPhotoBoothLikeEntity.photoBoothLikeEntity;
@@ -29,6 +36,13 @@ import static com.hot6.phopa.core.domain.user.model.entity.QUserEntity.userEntit
 
 @Repository
 public class PhotoBoothCustomRepositoryImpl extends QuerydslRepositorySupport implements PhotoBoothCustomRepository {
+    private static final String DISTANCE_SQL = "ST_Distance_Sphere(p.point, ST_GeomFromText(:point, 4326, 'axis-order=long-lat'))";
+
+    private static final String GEO_WHERE_SQL = "WHERE MBRContains(ST_GeomFromText(:boundary, 4326, 'axis-order=long-lat'), p.point) AND " + DISTANCE_SQL + " <= :distance * 1000 ";
+
+    private static final String BOUNDARY_WHERE_SQL = "WHERE MBRContains(ST_GeomFromText(:boundary, 4326, 'axis-order=long-lat'), p.point) "
+            + "AND p.latitude >= :minLatitude AND p.latitude < :maxLatitude AND p.longitude >= :minLongitude AND p.longitude < :maxLongitude ";
+
     private final JPAQueryFactory jpaQueryFactory;
 
     public PhotoBoothCustomRepositoryImpl(JPAQueryFactory jpaQueryFactory) {
@@ -78,53 +92,198 @@ public class PhotoBoothCustomRepositoryImpl extends QuerydslRepositorySupport im
                 .fetchOne();
     }
 
+    /**
+     * 거리/상태/태그 조건, 거리순 정렬, limit 을 모두 DB 에서 처리하고 전체 수는 COUNT(DISTINCT) 로 구함.
+     */
+    @Override
+    public PhotoBoothWithDistanceDTO findByGeoAndColumn(double latitude, double longitude, double distance, Status status, Set<Long> tagIdSet, PageableParam pageable) {
+        String whereSql = GEO_WHERE_SQL + buildColumnWhereSql(status, tagIdSet);
+        Query query = getEntityManager().createNativeQuery("SELECT {p.*}, " + DISTANCE_SQL + " / 1000 AS distance FROM photo_booth p " + whereSql + " ORDER BY distance LIMIT :limit OFFSET :offset");
+        NativeQuery<?> nativeQuery = query.unwrap(NativeQuery.class)
+                .addEntity("p", PhotoBoothEntity.class)
+                .addScalar("distance", StandardBasicTypes.DOUBLE);
+        setGeoParameter(nativeQuery, latitude, longitude, distance);
+        setColumnParameter(nativeQuery, status, tagIdSet);
+        nativeQuery.setParameter("limit", pageable.getPageSize());
+        nativeQuery.setParameter("offset", pageable.getOffset());
+
+        List<PhotoBoothEntity> result = new ArrayList<>();
+        Map<Long, Double> photoBoothIdDistanceMap = new HashMap<>();
+        for (Object row : nativeQuery.getResultList()) {
+            Object[] columns = (Object[]) row;
+            PhotoBoothEntity entity = (PhotoBoothEntity) columns[0];
+            result.add(entity);
+            photoBoothIdDistanceMap.put(entity.getId(), (Double) columns[1]);
+        }
+
+        long totalCount = countByGeoAndColumn(latitude, longitude, distance, status, tagIdSet, Collections.emptyList());
+        return PhotoBoothWithDistanceDTO.of(photoBoothIdDistanceMap, new PageImpl<>(result, PageRequest.of(pageable.getPage(), pageable.getPageSize()), totalCount));
+    }
+
+    /**
+     * 조건에 맞는 포토부스의 id, 좌표만 거리순으로 조회 (near-by 캐시용)
+     */
+    @Override
+    public List<PhotoBoothGeoDTO> findGeoByGeoAndColumn(double latitude, double longitude, double distance, Status status, Set<Long> tagIdSet) {
+        Query query = getEntityManager().createNativeQuery("SELECT p.id, p.latitude, p.longitude FROM photo_booth p " + GEO_WHERE_SQL + buildColumnWhereSql(status, tagIdSet) + "ORDER BY " + DISTANCE_SQL);
+        setGeoParameter(query, latitude, longitude, distance);
+        setColumnParameter(query, status, tagIdSet);
+
+        List<PhotoBoothGeoDTO> result = new ArrayList<>();
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            result.add(PhotoBoothGeoDTO.of(((Number) columns[0]).longValue(), ((Number) columns[1]).doubleValue(), ((Number) columns[2]).doubleValue()));
+        }
+        return result;
+    }
+
     @Override
-    public Page<PhotoBoothEntity> findByPhotoBoothIdAndColumn(List<Long> photoBoothIdList, Status status, Set<Long> tagIdSet, PageableParam pageable) {
-        List<PhotoBoothEntity> result = jpaQueryFactory.selectFrom(photoBoothEntity)
-                .leftJoin(photoBoothEntity.reviewSet, reviewEntity)
-                .leftJoin(reviewEntity.reviewTagSet, reviewTagEntity)
-                .leftJoin(reviewTagEntity.tag, tagEntity)
+    @SuppressWarnings("unchecked")
+    public List<PhotoBoothEntity> findAllByBoundary(GeoBoundary boundary, int limit) {
+        Query query = getEntityManager().createNativeQuery("SELECT p.* FROM photo_booth p " + BOUNDARY_WHERE_SQL + "AND p.status = 'ACTIVE' LIMIT :limit", PhotoBoothEntity.class);
+        setBoundaryParameter(query, boundary);
+        query.setParameter("limit", limit);
+        return query.getResultList();
+    }
+
+    /**
+     * cluster 인덱스가 준비되지 않았을 때 사용. cellSize 격자로 묶어 평균 좌표/개수/대표 id 를 구함.
+     */
+    @Override
+    public List<PhotoBoothClusterDTO> findClusterByBoundary(GeoBoundary boundary, double cellSize) {
+        Query query = getEntityManager().createNativeQuery("SELECT AVG(p.latitude), AVG(p.longitude), COUNT(*), MIN(p.id) FROM photo_booth p " + BOUNDARY_WHERE_SQL
+                + "AND p.status = 'ACTIVE' GROUP BY FLOOR((p.latitude + 90) / :cellSize), FLOOR((p.longitude + 180) / :cellSize)");
+        setBoundaryParameter(query, boundary);
+        query.setParameter("cellSize", cellSize);
+
+        List<PhotoBoothClusterDTO> result = new ArrayList<>();
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            result.add(PhotoBoothClusterDTO.of(((Number) columns[0]).doubleValue(), ((Number) columns[1]).doubleValue(), ((Number) columns[2]).intValue(), ((Number) columns[3]).longValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<PhotoBoothEntity> findAllByPhotoBoothIdList(List<Long> photoBoothIdList) {
+        if (CollectionUtils.isEmpty(photoBoothIdList)) {
+            return new ArrayList<>();
+        }
+        return from(photoBoothEntity)
                 .where(photoBoothEntity.id.in(photoBoothIdList).and(photoBoothEntity.status.eq(Status.ACTIVE)))
-                .where(buildPredicate(status, tagIdSet))
                 .orderBy(orderByFieldList(photoBoothIdList))
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .distinct()
                 .fetch();
-        long totalCount = from(photoBoothEntity)
-                .leftJoin(photoBoothEntity.reviewSet, reviewEntity).fetchJoin()
-                .leftJoin(reviewEntity.reviewTagSet, reviewTagEntity).fetchJoin()
-                .leftJoin(reviewTagEntity.tag, tagEntity).fetchJoin()
-                .where(photoBoothEntity.id.in(photoBoothIdList).and(photoBoothEntity.status.eq(Status.ACTIVE)))
-                .where(buildPredicate(status, tagIdSet))
-                .distinct()
-                .fetch()
-                .size();
-        return new PageImpl<>(result, PageRequest.of(pageable.getPage(), pageable.getPageSize()), totalCount);
     }
 
+    /**
+     * excludeBoundaryList 영역에 속한 포토부스는 제외하고 셈. (cell 단위로 캐싱된 영역 제외용)
+     */
     @Override
-    public Integer getCountByPhotoBoothIdAndColumn(List<Long> photoBoothIdList, Status status, Set<Long> tagIdSet) {
-        return from(photoBoothEntity)
-                .leftJoin(photoBoothEntity.reviewSet, reviewEntity).fetchJoin()
-                .leftJoin(reviewEntity.reviewTagSet, reviewTagEntity).fetchJoin()
-                .leftJoin(reviewTagEntity.tag, tagEntity).fetchJoin()
-                .where(photoBoothEntity.id.in(photoBoothIdList).and(photoBoothEntity.status.eq(Status.ACTIVE)))
-                .where(buildPredicate(status, tagIdSet))
-                .distinct()
-                .fetch()
-                .size();
+    public long countByGeoAndColumn(double latitude, double longitude, double distance, Status status, Set<Long> tagIdSet, List<GeoBoundary> excludeBoundaryList) {
+        StringBuilder sb = new StringBuilder("SELECT COUNT(DISTINCT p.id) FROM photo_booth p ")
+                .append(GEO_WHERE_SQL)
+                .append(buildColumnWhereSql(status, tagIdSet));
+        for (int i = 0; i < excludeBoundaryList.size(); i++) {
+            sb.append(String.format("AND NOT (p.latitude >= :minLatitude%1$d AND p.latitude < :maxLatitude%1$d AND p.longitude >= :minLongitude%1$d AND p.longitude < :maxLongitude%1$d) ", i));
+        }
+        Query query = getEntityManager().createNativeQuery(sb.toString());
+        setGeoParameter(query, latitude, longitude, distance);
+        setColumnParameter(query, status, tagIdSet);
+        for (int i = 0; i < excludeBoundaryList.size(); i++) {
+            GeoBoundary boundary = excludeBoundaryList.get(i);
+            query.setParameter("minLatitude" + i, boundary.getMinLatitude());
+            query.setParameter("maxLatitude" + i, boundary.getMaxLatitude());
+            query.setParameter("minLongitude" + i, boundary.getMinLongitude());
+            query.setParameter("maxLongitude" + i, boundary.getMaxLongitude());
+        }
+        return ((Number) query.getSingleResult()).longValue();
     }
 
-    private Predicate buildPredicate(Status status, Set<Long> tagIdSet) {
-        BooleanBuilder builder = new BooleanBuilder();
+    /**
+     * boundaryList 영역 안의 포토부스를 cellSize 격자(GeoCellUtil.key) 별로 셈, 포토부스가 없는 cell 은 결과에 없음
+     * cell 은 SQL 이 아니라 GeoCellUtil 로 나눔. 영역을 거르는 경계(GeoCellUtil.minLatitude 등)와 같은 계산이라 경계 위의 포토부스가 영역 밖 cell 로 세어지지 않음.
+     */
+    @Override
+    public Map<Long, Long> countByBoundaryAndColumnGroupByCell(List<GeoBoundary> boundaryList, double cellSize, Status status, Set<Long> tagIdSet) {
+        Map<Long, Long> result = new HashMap<>();
+        if (CollectionUtils.isEmpty(boundaryList)) {
+            return result;
+        }
+        StringBuilder sb = new StringBuilder("SELECT p.latitude, p.longitude FROM photo_booth p ")
+                .append("WHERE MBRContains(ST_GeomFromText(:boundary, 4326, 'axis-order=long-lat'), p.point) AND (");
+        for (int i = 0; i < boundaryList.size(); i++) {
+            sb.append(i == 0 ? "" : "OR ")
+                    .append(String.format("(p.latitude >= :minLatitude%1$d AND p.latitude < :maxLatitude%1$d AND p.longitude >= :minLongitude%1$d AND p.longitude < :maxLongitude%1$d) ", i));
+        }
+        sb.append(") ").append(buildColumnWhereSql(status, tagIdSet));
+        Query query = getEntityManager().createNativeQuery(sb.toString());
+        // spatial index 를 타도록 전체를 감싸는 MBR 을 같이 줌
+        double minLatitude = Double.MAX_VALUE;
+        double maxLatitude = -Double.MAX_VALUE;
+        double minLongitude = Double.MAX_VALUE;
+        double maxLongitude = -Double.MAX_VALUE;
+        for (int i = 0; i < boundaryList.size(); i++) {
+            GeoBoundary boundary = boundaryList.get(i);
+            query.setParameter("minLatitude" + i, boundary.getMinLatitude());
+            query.setParameter("maxLatitude" + i, boundary.getMaxLatitude());
+            query.setParameter("minLongitude" + i, boundary.getMinLongitude());
+            query.setParameter("maxLongitude" + i, boundary.getMaxLongitude());
+            minLatitude = Math.min(minLatitude, boundary.getMinLatitude());
+            maxLatitude = Math.max(maxLatitude, boundary.getMaxLatitude());
+            minLongitude = Math.min(minLongitude, boundary.getMinLongitude());
+            maxLongitude = Math.max(maxLongitude, boundary.getMaxLongitude());
+        }
+        query.setParameter("boundary", GeoBoundary.of(minLatitude, maxLatitude, minLongitude, maxLongitude).toLineStringText());
+        setColumnParameter(query, status, tagIdSet);
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            result.merge(GeoCellUtil.key(((Number) columns[0]).doubleValue(), ((Number) columns[1]).doubleValue(), cellSize), 1L, Long::sum);
+        }
+        return result;
+    }
+
+    /**
+     * 시퀀스 row 를 LAST_INSERT_ID 로 증가시켜 다음 버전을 받음.
+     * row lock 이 commit 까지 유지되므로 버전 순서와 commit 순서가 같음.
+     */
+    @Override
+    public long nextVersion() {
+        getEntityManager().createNativeQuery("UPDATE photo_booth_version_sequence SET version = LAST_INSERT_ID(version + 1) WHERE id = 1").executeUpdate();
+        return ((Number) getEntityManager().createNativeQuery("SELECT LAST_INSERT_ID()").getSingleResult()).longValue();
+    }
+
+    private String buildColumnWhereSql(Status status, Set<Long> tagIdSet) {
+        StringBuilder sb = new StringBuilder("AND p.status = 'ACTIVE' ");
         if (status != null) {
-            builder.and(photoBoothEntity.status.eq(status));
+            sb.append("AND p.status = :status ");
         }
         if (CollectionUtils.isNotEmpty(tagIdSet)) {
-            builder.and(photoBoothEntity.tag.id.in(tagIdSet).or(tagEntity.id.in(tagIdSet)));
+            sb.append("AND (p.tag_id IN (:tagIdSet) OR EXISTS (SELECT 1 FROM review_tag rt WHERE rt.photo_booth_id = p.id AND rt.tag_id IN (:tagIdSet))) ");
+        }
+        return sb.toString();
+    }
+
+    private void setGeoParameter(Query query, double latitude, double longitude, double distance) {
+        query.setParameter("point", GeometryUtil.toPointText(latitude, longitude));
+        query.setParameter("boundary", GeometryUtil.toBoundaryText(latitude, longitude, distance));
+        query.setParameter("distance", distance);
+    }
+
+    private void setBoundaryParameter(Query query, GeoBoundary boundary) {
+        query.setParameter("boundary", boundary.toLineStringText());
+        query.setParameter("minLatitude", boundary.getMinLatitude());
+        query.setParameter("maxLatitude", boundary.getMaxLatitude());
+        query.setParameter("minLongitude", boundary.getMinLongitude());
+        query.setParameter("maxLongitude", boundary.getMaxLongitude());
+    }
+
+    private void setColumnParameter(Query query, Status status, Set<Long> tagIdSet) {
+        if (status != null) {
+            query.setParameter("status", status.name());
+        }
+        if (CollectionUtils.isNotEmpty(tagIdSet)) {
+            query.setParameter("tagIdSet", tagIdSet);
         }
-        return builder.getValue();
     }
 
     private OrderSpecifier<?> orderByFieldList(List<Long> photoBoothIdList) {
@@ -0,0 +1,109 @@
+package com.hot6.phopa.core.domain.photobooth.service;
+
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheType;
+import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.utils.GeoCellUtil;
+import com.hot6.phopa.core.common.utils.GeometryUtil;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothDistanceDTO;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothGeoDTO;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothRepository;
+import com.hot6.phopa.core.service.RedisCacheService;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * near-by 검색 결과(거리순 id 목록)를 격자에 맞춘(snapped) 위치 기준으로 캐싱
+ * hash key = 넓은 region cell, hash field = snapped cell + 거리 구간 + status + tag
+ * 캐시에는 snapped 위치에서 (거리 구간 + snap 오차) 반경의 좌표를 넣고, 꺼낼 때 실제 위치로 거리를 다시 계산해 거름.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PhotoBoothNearByCacheService {
+
+    // 위도 1도 당 거리(km)
+    private static final double KM_PER_DEGREE = 111.195;
+
+    private final PhotoBoothRepository photoBoothRepository;
+
+    private final RedisCacheService cacheService;
+
+    @Value("${photo-booth.near-by-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${photo-booth.near-by-cache.grid-size:0.0005}")
+    private double gridSize;
+
+    @Value("${photo-booth.near-by-cache.region-size:0.05}")
+    private double regionSize;
+
+    @Value("${photo-booth.near-by-cache.distance-bucket:0.5}")
+    private double distanceBucket;
+
+    @Value("${photo-booth.near-by-cache.max-distance:3}")
+    private double maxDistance;
+
+    public boolean isCacheable(Double distance) {
+        return enabled && distance != null && distance > 0 && distance <= maxDistance;
+    }
+
+    /**
+     * 실제 위치 기준 distance 이내의 포토부스를 거리순으로 반환
+     */
+    public List<PhotoBoothDistanceDTO> getNearByList(double latitude, double longitude, double distance, Status status, Set<Long> tagIdSet) {
+        int row = GeoCellUtil.row(latitude, gridSize);
+        int column = GeoCellUtil.column(longitude, gridSize);
+        double snappedLatitude = GeoCellUtil.minLatitude(row, gridSize) + gridSize / 2;
+        double snappedLongitude = GeoCellUtil.minLongitude(column, gridSize) + gridSize / 2;
+        double bucketDistance = Math.ceil(distance / distanceBucket) * distanceBucket;
+        String tags = CollectionUtils.isEmpty(tagIdSet) ? "" : tagIdSet.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+
+        CacheKeyEntity key = CacheKeyEntity.hashKey(CacheType.PhotoBoothNearBy, GeoCellUtil.key(latitude, longitude, regionSize))
+                .hashField(row, column, bucketDistance, status == null ? "" : status.name(), tags);
+        List<PhotoBoothGeoDTO> photoBoothGeoDTOList = cacheService.hGetList(key,
+                () -> photoBoothRepository.findGeoByGeoAndColumn(snappedLatitude, snappedLongitude, bucketDistance + snapErrorDistance(), status, tagIdSet),
+                PhotoBoothGeoDTO.class);
+
+        List<PhotoBoothDistanceDTO> result = new ArrayList<>();
+        for (PhotoBoothGeoDTO photoBoothGeoDTO : photoBoothGeoDTOList) {
+            double photoBoothDistance = GeometryUtil.haversine(latitude, longitude, photoBoothGeoDTO.getLatitude(), photoBoothGeoDTO.getLongitude());
+            if (photoBoothDistance <= distance) {
+                result.add(PhotoBoothDistanceDTO.of(photoBoothGeoDTO.getId(), photoBoothDistance));
+            }
+        }
+        result.sort(Comparator.comparingDouble(PhotoBoothDistanceDTO::getDistance));
+        return result;
+    }
+
+    /**
+     * 해당 좌표를 결과에 포함할 수 있는 region 의 캐시를 모두 지움
+     */
+    public void evict(double latitude, double longitude) {
+        if (enabled == false) {
+            return;
+        }
+        double radius = Math.ceil(maxDistance / distanceBucket) * distanceBucket + snapErrorDistance();
+        double latitudeDelta = radius / KM_PER_DEGREE;
+        double longitudeDelta = latitudeDelta / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        for (int row = GeoCellUtil.row(latitude - latitudeDelta, regionSize); row <= GeoCellUtil.row(latitude + latitudeDelta, regionSize); row++) {
+            for (int column = GeoCellUtil.column(longitude - longitudeDelta, regionSize); column <= GeoCellUtil.column(longitude + longitudeDelta, regionSize); column++) {
+                cacheService.hDelByHashKey(CacheKeyEntity.hashKey(CacheType.PhotoBoothNearBy, GeoCellUtil.key(row, column)));
+            }
+        }
+    }
+
+    // snapped 위치와 실제 위치 사이의 최대 거리(km), grid cell 대각선의 절반 이하
+    private double snapErrorDistance() {
+        return gridSize / 2 * KM_PER_DEGREE * Math.sqrt(2);
+    }
+}
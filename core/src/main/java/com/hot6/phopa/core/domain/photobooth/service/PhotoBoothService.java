@@ -1,23 +1,47 @@
 package com.hot6.phopa.core.domain.photobooth.service;
 
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
+import com.hot6.phopa.core.common.enumeration.LikeType;
 import com.hot6.phopa.core.common.exception.ApplicationErrorType;
 import com.hot6.phopa.core.common.exception.SilentApplicationErrorException;
 import com.hot6.phopa.core.common.model.dto.PageableParam;
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheType;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.service.LikeCountService;
+import com.hot6.phopa.core.common.service.UserLikeService;
+import com.hot6.phopa.core.common.utils.GeoBoundary;
+import com.hot6.phopa.core.common.utils.GeoCellUtil;
+import com.hot6.phopa.core.common.utils.GeometryUtil;
 import com.hot6.phopa.core.common.utils.PointUtil;
 import com.hot6.phopa.core.domain.map.service.KakaoMapService;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothClusterDTO;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothDistanceDTO;
+import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothGeoDTO;
 import com.hot6.phopa.core.domain.photobooth.dto.PhotoBoothNativeQueryDTO;
+import com.hot6.phopa.core.domain.photobooth.index.PhotoBoothClusterIndex;
+import com.hot6.phopa.core.domain.photobooth.index.PhotoBoothGeoIndex;
+import com.hot6.phopa.core.domain.photobooth.index.PhotoBoothIndexSyncService;
+import com.hot6.phopa.core.domain.photobooth.index.PhotoBoothTagIndex;
 import com.hot6.phopa.core.domain.photobooth.model.dto.PhotoBoothWithDistanceDTO;
 import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
 import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothLikeEntity;
 import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothLikeRepository;
 import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothRepository;
 import com.hot6.phopa.core.domain.tag.model.entity.TagEntity;
+import com.hot6.phopa.core.domain.tag.repository.TagRepository;
+import com.hot6.phopa.core.service.RedisCacheService;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections4.CollectionUtils;
-import org.springframework.data.domain.Page;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
 import java.util.*;
@@ -36,27 +60,268 @@ public class PhotoBoothService {
 
     private final PhotoBoothLikeRepository photoBoothLikeRepository;
 
+    private final LikeCountService likeCountService;
+
+    private final UserLikeService userLikeService;
+
+    private final PhotoBoothGeoIndex photoBoothGeoIndex;
+
+    private final RedisCacheService cacheService;
+
+    private final PhotoBoothNearByCacheService photoBoothNearByCacheService;
+
+    private final PhotoBoothClusterIndex photoBoothClusterIndex;
+
+    private final PhotoBoothTagIndex photoBoothTagIndex;
+
+    private final PhotoBoothIndexSyncService photoBoothIndexSyncService;
+
+    private final PhotoBoothVersionService photoBoothVersionService;
+
+    private final TagRepository tagRepository;
+
+    @Value("${photo-booth.cell-count.enabled:false}")
+    private boolean cellCountEnabled;
+
+    @Value("${photo-booth.cell-count.cell-size:0.005}")
+    private double cellCountCellSize;
+
+    // 위도 1도 당 거리(km)
+    private static final double KM_PER_DEGREE = 111.195;
+
+    private static final double INTERIOR_DISTANCE_RATIO = 0.999;
+
+    // 반경이 너무 커서 cell 이 많아지면 cell 캐시 없이 SQL 로만 셈
+    private static final int MAX_CELL_COUNT = 2500;
+
+    private static final double NEAREST_START_DISTANCE = 1;
+
+    @Value("${photo-booth.nearest.max-k:100}")
+    private int nearestMaxK;
+
+    @Value("${photo-booth.nearest.max-distance:30}")
+    private double nearestMaxDistance;
+
+    @Value("${photo-booth.cluster.max-photo-booth-count:1000}")
+    private int viewportMaxPhotoBoothCount;
+
     @Transactional(readOnly = true)
-    //    distance 1 = 1m
+    //    distance 1 = 1km
     public PhotoBoothWithDistanceDTO getPhotoBoothNearByUserGeo(Double latitude, Double longitude, Double distance, Status status, Set<Long> tagIdSet, PageableParam pageable) {
-        List<PhotoBoothNativeQueryDTO> photoBoothNativeQueryDTOList = photoBoothRepository.findIdsByGeo(latitude, longitude, distance / 100);
-        Map<Long, Double> photoBoothIdDistanceMap = photoBoothNativeQueryDTOList.stream().collect(Collectors.toMap(PhotoBoothNativeQueryDTO::getId, p -> (p.getDistance() * 100)));
-        List<Long> photoBoothIdList = photoBoothNativeQueryDTOList.stream().sorted(Comparator.comparingDouble(PhotoBoothNativeQueryDTO::getDistance)).map(PhotoBoothNativeQueryDTO::getId).collect(Collectors.toList());
-        Page<PhotoBoothEntity> photoBoothEntityPage = photoBoothRepository.findByPhotoBoothIdAndColumn(photoBoothIdList, status, tagIdSet, pageable);
-        return PhotoBoothWithDistanceDTO.of(photoBoothIdDistanceMap, photoBoothEntityPage);
+        // 태그 조건은 bitmap 으로 거르므로 태그 인덱스가 없으면 SQL 한 번으로 처리
+        if (photoBoothGeoIndex.isAvailable() == false || (CollectionUtils.isNotEmpty(tagIdSet) && photoBoothTagIndex.isAvailable() == false)) {
+            return photoBoothRepository.findByGeoAndColumn(latitude, longitude, distance, status, tagIdSet, pageable);
+        }
+        // 인덱스는 ACTIVE 만 들고 있음
+        List<PhotoBoothNativeQueryDTO> photoBoothNativeQueryDTOList = status != null && Status.ACTIVE.equals(status) == false
+                ? new ArrayList<>()
+                : photoBoothGeoIndex.findIdsByGeo(latitude, longitude, distance);
+        if (CollectionUtils.isNotEmpty(tagIdSet)) {
+            Roaring64Bitmap tagPhotoBoothIds = photoBoothTagIndex.findPhotoBoothIds(tagIdSet);
+            photoBoothNativeQueryDTOList = photoBoothNativeQueryDTOList.stream().filter(photoBoothNativeQueryDTO -> tagPhotoBoothIds.contains(photoBoothNativeQueryDTO.getId())).collect(Collectors.toList());
+        }
+        // 거리순 정렬과 페이징은 메모리에서 하고, 해당 페이지의 포토부스만 DB 에서 읽음
+        int fromIndex = Math.min(pageable.getOffset(), photoBoothNativeQueryDTOList.size());
+        int toIndex = Math.min(fromIndex + pageable.getPageSize(), photoBoothNativeQueryDTOList.size());
+        List<PhotoBoothNativeQueryDTO> pageList = photoBoothNativeQueryDTOList.subList(fromIndex, toIndex);
+        Map<Long, Double> photoBoothIdDistanceMap = pageList.stream().collect(Collectors.toMap(PhotoBoothNativeQueryDTO::getId, PhotoBoothNativeQueryDTO::getDistance));
+        List<PhotoBoothEntity> photoBoothEntityList = photoBoothRepository.findAllByPhotoBoothIdList(pageList.stream().map(PhotoBoothNativeQueryDTO::getId).collect(Collectors.toList()));
+        return PhotoBoothWithDistanceDTO.of(photoBoothIdDistanceMap, new PageImpl<>(photoBoothEntityList, PageRequest.of(pageable.getPage(), pageable.getPageSize()), photoBoothNativeQueryDTOList.size()));
+    }
+
+    /**
+     * 가까운 순으로 k 개. 인덱스가 있으면 ring 확장으로 찾고, 없으면 반경을 두 배씩 늘려가며 SQL 로 찾음.
+     */
+    @Transactional(readOnly = true)
+    public List<PhotoBoothNativeQueryDTO> getNearestPhotoBooth(Double latitude, Double longitude, int k, Status status, Set<Long> tagIdSet) {
+        if (k < 1 || k > nearestMaxK) {
+            throw new SilentApplicationErrorException(ApplicationErrorType.INVALID_REQUEST);
+        }
+        // 태그 조건이 있는데 태그 인덱스가 없으면 태그 조건을 거는 SQL 반경 확장으로 찾음
+        if (photoBoothGeoIndex.isAvailable() && (CollectionUtils.isEmpty(tagIdSet) || photoBoothTagIndex.isAvailable())) {
+            // 인덱스는 ACTIVE 만 들고 있음
+            if (status != null && Status.ACTIVE.equals(status) == false) {
+                return new ArrayList<>();
+            }
+            if (CollectionUtils.isEmpty(tagIdSet)) {
+                return photoBoothGeoIndex.findNearest(latitude, longitude, k, nearestMaxDistance, id -> true);
+            }
+            Roaring64Bitmap tagPhotoBoothIds = photoBoothTagIndex.findPhotoBoothIds(tagIdSet);
+            return photoBoothGeoIndex.findNearest(latitude, longitude, k, nearestMaxDistance, tagPhotoBoothIds::contains);
+        }
+        List<PhotoBoothGeoDTO> photoBoothGeoDTOList;
+        double distance = NEAREST_START_DISTANCE;
+        while (true) {
+            photoBoothGeoDTOList = photoBoothRepository.findGeoByGeoAndColumn(latitude, longitude, distance, status, tagIdSet);
+            if (photoBoothGeoDTOList.size() >= k || distance >= nearestMaxDistance) {
+                break;
+            }
+            distance = Math.min(distance * 2, nearestMaxDistance);
+        }
+        return photoBoothGeoDTOList.stream()
+                .limit(k)
+                .map(photoBoothGeoDTO -> PhotoBoothDistanceDTO.of(photoBoothGeoDTO.getId(), GeometryUtil.haversine(latitude, longitude, photoBoothGeoDTO.getLatitude(), photoBoothGeoDTO.getLongitude())))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<PhotoBoothClusterDTO> getPhotoBoothCluster(GeoBoundary boundary, int level) {
+        if (photoBoothClusterIndex.isAvailable()) {
+            return photoBoothClusterIndex.findClusters(boundary.getMinLatitude(), boundary.getMinLongitude(), boundary.getMaxLatitude(), boundary.getMaxLongitude(), level);
+        }
+        return photoBoothRepository.findClusterByBoundary(boundary, photoBoothClusterIndex.clusterCellSize(level));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PhotoBoothEntity> getPhotoBoothByBoundary(GeoBoundary boundary) {
+        return photoBoothRepository.findAllByBoundary(boundary, viewportMaxPhotoBoothCount);
+    }
+
+    public boolean isClusterLevel(int level) {
+        return photoBoothClusterIndex.isClusterLevel(level);
     }
 
     @Transactional(readOnly = true)
-    //    distance 1 = 1m
+    //    distance 1 = 1km
     public Integer getPhotoBoothNearByUserGeoCount(Double latitude, Double longitude, Double distance, Status status, Set<Long> tagIdSet) {
-        List<PhotoBoothNativeQueryDTO> photoBoothNativeQueryDTOList = photoBoothRepository.findIdsByGeo(latitude, longitude, distance / 100);
-        List<Long> photoBoothIdList = photoBoothNativeQueryDTOList.stream().map(PhotoBoothNativeQueryDTO::getId).collect(Collectors.toList());
-        return photoBoothRepository.getCountByPhotoBoothIdAndColumn(photoBoothIdList, status, tagIdSet);
+        if (cellCountEnabled == false) {
+            return (int) photoBoothRepository.countByGeoAndColumn(latitude, longitude, distance, status, tagIdSet, Collections.emptyList());
+        }
+        // 반경 안에 완전히 들어가는 cell 은 캐싱된 cell 별 count 를 쓰고, 경계에 걸친 cell 만 SQL 로 셈
+        String filter = toCellCountFilter(status, tagIdSet);
+        double latitudeDelta = distance / KM_PER_DEGREE;
+        double longitudeDelta = latitudeDelta / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        int minRow = GeoCellUtil.row(latitude - latitudeDelta, cellCountCellSize);
+        int maxRow = GeoCellUtil.row(latitude + latitudeDelta, cellCountCellSize);
+        int minColumn = GeoCellUtil.column(longitude - longitudeDelta, cellCountCellSize);
+        int maxColumn = GeoCellUtil.column(longitude + longitudeDelta, cellCountCellSize);
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) > MAX_CELL_COUNT) {
+            return (int) photoBoothRepository.countByGeoAndColumn(latitude, longitude, distance, status, tagIdSet, Collections.emptyList());
+        }
+
+        List<GeoBoundary> interiorBoundaryList = new ArrayList<>();
+        List<CacheKeyEntity> cellCountKeyList = new ArrayList<>();
+        List<Long> cellKeyList = new ArrayList<>();
+        for (int row = minRow; row <= maxRow; row++) {
+            int first = -1;
+            int last = -1;
+            for (int column = minColumn; column <= maxColumn; column++) {
+                if (isInteriorCell(latitude, longitude, distance, row, column)) {
+                    if (first < 0) {
+                        first = column;
+                    }
+                    last = column;
+                }
+            }
+            if (first < 0) {
+                continue;
+            }
+            interiorBoundaryList.add(GeoCellUtil.boundary(row, first, last, cellCountCellSize));
+            for (int column = first; column <= last; column++) {
+                long cellKey = GeoCellUtil.key(row, column);
+                cellKeyList.add(cellKey);
+                cellCountKeyList.add(CacheKeyEntity.hashKey(CacheType.PhotoBoothCellCount, cellKey).hashField(filter));
+            }
+        }
+
+        long count = 0;
+        List<Long> cachedCountList = cacheService.hGetAll(cellCountKeyList, Long.class);
+        // 캐시에 없는 cell 은 행 별로 이어진 구간으로 묶어 한 번의 쿼리로 읽고 cell 별로 셈
+        List<Integer> missIndexList = new ArrayList<>();
+        List<GeoBoundary> missBoundaryList = new ArrayList<>();
+        for (int i = 0; i < cellCountKeyList.size(); i++) {
+            Long cachedCount = cachedCountList.get(i);
+            if (cachedCount != null) {
+                count += cachedCount;
+                continue;
+            }
+            long cellKey = cellKeyList.get(i);
+            int row = GeoCellUtil.rowOf(cellKey);
+            int column = GeoCellUtil.columnOf(cellKey);
+            if (missIndexList.isEmpty() == false && missIndexList.get(missIndexList.size() - 1) == i - 1 && cellKeyList.get(i - 1) == GeoCellUtil.key(row, column - 1)) {
+                GeoBoundary lastBoundary = missBoundaryList.remove(missBoundaryList.size() - 1);
+                missBoundaryList.add(GeoBoundary.of(lastBoundary.getMinLatitude(), lastBoundary.getMaxLatitude(), lastBoundary.getMinLongitude(), GeoCellUtil.minLongitude(column + 1, cellCountCellSize)));
+            } else {
+                missBoundaryList.add(GeoCellUtil.boundary(cellKey, cellCountCellSize));
+            }
+            missIndexList.add(i);
+        }
+        if (missIndexList.isEmpty() == false) {
+            Map<Long, Long> cellCountMap = photoBoothRepository.countByBoundaryAndColumnGroupByCell(missBoundaryList, cellCountCellSize, status, tagIdSet);
+            Map<CacheKeyEntity, Long> missCountMap = new HashMap<>();
+            for (Integer index : missIndexList) {
+                // 포토부스가 없는 cell 도 0 으로 캐싱
+                long cellCount = cellCountMap.getOrDefault(cellKeyList.get(index), 0L);
+                missCountMap.put(cellCountKeyList.get(index), cellCount);
+                count += cellCount;
+            }
+            cacheService.hSetAll(missCountMap);
+        }
+        count += photoBoothRepository.countByGeoAndColumn(latitude, longitude, distance, status, tagIdSet, interiorBoundaryList);
+        return (int) count;
+    }
+
+    // cell 의 네 꼭짓점이 모두 반경 안이면 cell 전체가 반경 안에 있음 (경계 오차를 위해 약간 안쪽으로 판정)
+    private boolean isInteriorCell(double latitude, double longitude, double distance, int row, int column) {
+        double minLatitude = GeoCellUtil.minLatitude(row, cellCountCellSize);
+        double maxLatitude = GeoCellUtil.minLatitude(row + 1, cellCountCellSize);
+        double minLongitude = GeoCellUtil.minLongitude(column, cellCountCellSize);
+        double maxLongitude = GeoCellUtil.minLongitude(column + 1, cellCountCellSize);
+        double limit = distance * INTERIOR_DISTANCE_RATIO;
+        return GeometryUtil.haversine(latitude, longitude, minLatitude, minLongitude) <= limit
+                && GeometryUtil.haversine(latitude, longitude, minLatitude, maxLongitude) <= limit
+                && GeometryUtil.haversine(latitude, longitude, maxLatitude, minLongitude) <= limit
+                && GeometryUtil.haversine(latitude, longitude, maxLatitude, maxLongitude) <= limit;
+    }
+
+    private String toCellCountFilter(Status status, Set<Long> tagIdSet) {
+        String tags = CollectionUtils.isEmpty(tagIdSet) ? "" : tagIdSet.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+        return (status == null ? "" : status.name()) + CacheKeyEntity.SEPARATOR + tags;
+    }
+
+    /**
+     * 포토부스 추가/태그 변경 시 해당 좌표의 cell count 캐시와 near-by 검색 캐시를 지움
+     * 트랜잭션 안이면 commit 이후에 지움 (commit 전에 지우면 동시에 들어온 조회가 변경 전 값으로 다시 채울 수 있음)
+     */
+    public void evictGeoCache(double latitude, double longitude) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictGeoCacheNow(latitude, longitude);
+                }
+            });
+        } else {
+            evictGeoCacheNow(latitude, longitude);
+        }
+    }
+
+    private void evictGeoCacheNow(double latitude, double longitude) {
+        if (cellCountEnabled) {
+            cacheService.hDelByHashKey(CacheKeyEntity.hashKey(CacheType.PhotoBoothCellCount, GeoCellUtil.key(latitude, longitude, cellCountCellSize)));
+        }
+        photoBoothNearByCacheService.evict(latitude, longitude);
+    }
+
+    /**
+     * 리뷰 태그가 바뀐 포토부스를 태그 인덱스에 반영하고 다른 노드에도 알림 (commit 이후)
+     */
+    public void refreshTagIndex(Long photoBoothId) {
+        if (photoBoothTagIndex.isAvailable()) {
+            photoBoothTagIndex.refreshAfterCommit(photoBoothId);
+            photoBoothIndexSyncService.publishAfterCommit(photoBoothId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<PhotoBoothEntity> getPhotoBoothListByIdList(List<Long> photoBoothIdList) {
+        return photoBoothRepository.findAllByPhotoBoothIdList(photoBoothIdList);
     }
 
     @Transactional(readOnly = true)
     public PhotoBoothEntity getPhotoBooth(Long photoBoothId) {
-        return photoBoothRepository.findById(photoBoothId).orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
+        return cacheService.find(CacheKeyEntity.valueKey(CacheType.PhotoBoothNotFound, photoBoothId), () -> photoBoothRepository.findById(photoBoothId))
+                .orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
     }
 
     public List<PhotoBoothEntity> kakaoMapTest(String keyword, Double latitude, Double longitude, Double distance, TagEntity tagEntity) {
@@ -71,33 +336,68 @@ public class PhotoBoothService {
                     savePhotoBoothEntityList.add(photoBoothEntity);
                 }
             }
-            tagEntity.updatePhotoBoothCount(photoBoothEntityList.size());
+            tagRepository.updatePhotoBoothCount(Collections.singleton(tagEntity.getId()), photoBoothEntityList.size());
         }
-        return photoBoothRepository.saveAll(savePhotoBoothEntityList);
+        photoBoothVersionService.markChanged(savePhotoBoothEntityList);
+        List<PhotoBoothEntity> savedPhotoBoothEntityList = photoBoothRepository.saveAll(savePhotoBoothEntityList);
+        savedPhotoBoothEntityList.forEach(photoBoothEntity -> {
+            evictGeoCache(photoBoothEntity.getLatitude(), photoBoothEntity.getLongitude());
+            cacheService.clearNotFound(CacheKeyEntity.valueKey(CacheType.PhotoBoothNotFound, photoBoothEntity.getId()));
+        });
+        return savedPhotoBoothEntityList;
     }
 
     @Transactional(readOnly = true)
     public PhotoBoothEntity getPhotoBoothById(Long photoBoothId) {
-        return photoBoothRepository.findById(photoBoothId).orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
+        return cacheService.find(CacheKeyEntity.valueKey(CacheType.PhotoBoothNotFound, photoBoothId), () -> photoBoothRepository.findById(photoBoothId))
+                .orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
     }
 
-    public PhotoBoothLikeEntity createPhotoBoothLikeEntity(PhotoBoothLikeEntity photoBoothLikeEntity) {
-        return photoBoothLikeRepository.save(photoBoothLikeEntity);
+    /**
+     * 좋아요 많은 순 size 개 + 리뷰 많은 순 size 개 (중복 제거)
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getPopularPhotoBoothIdList(int size) {
+        Set<Long> photoBoothIdSet = new LinkedHashSet<>(photoBoothRepository.findIdsByStatus(Status.ACTIVE, PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "likeCount"))));
+        photoBoothIdSet.addAll(photoBoothRepository.findIdsByStatus(Status.ACTIVE, PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "reviewCount"))));
+        return new ArrayList<>(photoBoothIdSet);
     }
 
-    public void deletePhotoBoothLikeEntity(PhotoBoothLikeEntity photoBoothLikeEntity) {
-        photoBoothLikeRepository.delete(photoBoothLikeEntity);
+    /**
+     * 리뷰 수와 별점 합계를 같이 바꾸고 평균 별점을 다시 계산함
+     */
+    public void updateReviewCount(Long photoBoothId, int countDelta, float starScoreDelta) {
+        photoBoothRepository.updateReviewCount(photoBoothId, countDelta, starScoreDelta);
     }
 
-    @Transactional(readOnly = true)
-    public PhotoBoothLikeEntity getPhotoBoothLikeByPhotoBoothIdAndUserId(Long photoBoothId, Long userId) {
-        return photoBoothLikeRepository.findOneByPhotoBoothIdAndUserId(photoBoothId, userId);
+    public void updateReviewImageCount(Long photoBoothId, int delta) {
+        if (delta != 0) {
+            photoBoothRepository.updateReviewImageCount(photoBoothId, delta);
+        }
     }
 
-    @Transactional(readOnly = true)
-    public List<PhotoBoothLikeEntity> getPhotoBoothLikeByPhotoBoothIdListAndUserId(List<Long> photoBoothIdList, Long userId) {
-        return photoBoothLikeRepository.findAllByPhotoBoothIdListAndUserId(photoBoothIdList, userId);
+    /**
+     * 지운 row 가 있으면 취소, 없으면 INSERT IGNORE 로 좋아요. 좋아요 수는 실제로 바뀐 row 만큼만 바뀜
+     * READ COMMITTED 트랜잭션에서 불러야 없는 row 를 지울 때 gap lock 을 잡지 않아 동시에 두 번 눌려도 deadlock 이 나지 않음.
+     */
+    public LikeType toggleLike(Long photoBoothId, Long userId) {
+        if (photoBoothLikeRepository.deleteByPhotoBoothIdAndUserId(photoBoothId, userId) > 0) {
+            likeCountService.add(LikeTargetType.PHOTO_BOOTH, photoBoothId, -1);
+            userLikeService.changed(LikeTargetType.PHOTO_BOOTH, userId, photoBoothId, false);
+            return LikeType.UNLIKE;
+        }
+        if (photoBoothLikeRepository.insertIgnore(photoBoothId, userId) > 0) {
+            likeCountService.add(LikeTargetType.PHOTO_BOOTH, photoBoothId, 1);
+            userLikeService.changed(LikeTargetType.PHOTO_BOOTH, userId, photoBoothId, true);
+            return LikeType.LIKE;
+        }
+        // 같이 들어온 요청이 먼저 좋아요를 눌렀거나 없는 포토부스
+        if (photoBoothRepository.existsById(photoBoothId) == false) {
+            throw new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA);
+        }
+        return LikeType.LIKE;
     }
+
     @Transactional(readOnly = true)
     public List<PhotoBoothEntity> findAllByUserLike(Long userId) {
         return photoBoothRepository.findAllByUserLike(userId);
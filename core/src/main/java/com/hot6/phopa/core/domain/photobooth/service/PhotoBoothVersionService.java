@@ -0,0 +1,152 @@
+package com.hot6.phopa.core.domain.photobooth.service;
+
+import com.hot6.phopa.core.domain.photobooth.enumeration.PhotoBoothChangeType;
+import com.hot6.phopa.core.domain.photobooth.model.entity.PhotoBoothEntity;
+import com.hot6.phopa.core.domain.photobooth.repository.PhotoBoothRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 포토부스 변경 버전 발급 (앱 오프라인 카탈로그 delta sync 용)
+ * STRUCTURAL 변경은 바로 새 버전을 받고, COUNTER 변경은 Redis set 에 모아뒀다가 주기적으로 하나의 버전으로 올림.
+ * 모은 id 는 Lua script 로 batch set 에 옮기고 batch id 를 pending 에 등록한 뒤 반영하고, commit 이 끝나야 그 batch 만 지움.
+ * 반영 도중 멈추거나 실패하면 batch 가 pending 에 남아 있어 다음 flush 때(다른 노드여도) 다시 반영함.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PhotoBoothVersionService {
+
+    private static final String DIRTY_KEY = "photo-booth:version:counter:dirty";
+
+    private static final String BATCH_KEY_PREFIX = "photo-booth:version:counter:batch:";
+
+    private static final String PENDING_BATCH_KEY = "photo-booth:version:counter:pending";
+
+    // 바뀐 id 를 꺼내 batch set 으로 옮기고, 옮긴 게 있으면 batch id 를 pending 에 등록
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('spop', KEYS[1], ARGV[1]) "
+                    + "if #ids > 0 then "
+                    + "redis.call('sadd', KEYS[2], unpack(ids)) "
+                    + "redis.call('sadd', KEYS[3], ARGV[2]) "
+                    + "end "
+                    + "return #ids", Long.class);
+
+    private final PhotoBoothRepository photoBoothRepository;
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${photo-booth.version.counter-flush-batch-size:1000}")
+    private int counterFlushBatchSize;
+
+    public void markChanged(PhotoBoothEntity photoBoothEntity, PhotoBoothChangeType changeType) {
+        if (PhotoBoothChangeType.STRUCTURAL.equals(changeType)) {
+            photoBoothEntity.updateVersion(photoBoothRepository.nextVersion());
+        } else {
+            markCounterChanged(Collections.singletonList(photoBoothEntity.getId()));
+        }
+    }
+
+    /**
+     * 좋아요 수 batch 반영처럼 엔티티 없이 counter 만 바뀐 경우
+     */
+    public void markCounterChanged(Collection<Long> photoBoothIds) {
+        // commit 전에 flush 되면 앱이 바뀌기 전 값을 새 버전으로 받아갈 수 있어서 commit 이후에 등록
+        String[] photoBoothIdArray = photoBoothIds.stream().map(String::valueOf).toArray(String[]::new);
+        if (photoBoothIdArray.length == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addCounterChanged(photoBoothIdArray);
+                }
+            });
+        } else {
+            addCounterChanged(photoBoothIdArray);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${photo-booth.version.counter-flush-interval:60000}")
+    public void flushCounterChange() {
+        // 이전 flush 가 batch 를 지우기 전에 멈췄으면(재시작, rollback 등) 그 batch 부터 반영
+        Set<String> pendingBatchIdSet = redisTemplate.opsForSet().members(PENDING_BATCH_KEY);
+        if (CollectionUtils.isNotEmpty(pendingBatchIdSet)) {
+            pendingBatchIdSet.forEach(this::applyCounterChange);
+        }
+        String batchId = UUID.randomUUID().toString();
+        Long claimed = redisTemplate.execute(CLAIM_SCRIPT, Arrays.asList(DIRTY_KEY, batchKey(batchId), PENDING_BATCH_KEY),
+                String.valueOf(counterFlushBatchSize), batchId);
+        if (claimed != null && claimed > 0) {
+            applyCounterChange(batchId);
+        }
+    }
+
+    // 같은 batch 를 여러 노드가 반영해도 버전이 한 번 더 오를 뿐이고, 지우는 것은 이 batch 뿐이라 다른 batch 의 id 는 남음
+    private void applyCounterChange(String batchId) {
+        String batchKey = batchKey(batchId);
+        Set<String> photoBoothIdSet = redisTemplate.opsForSet().members(batchKey);
+        if (CollectionUtils.isNotEmpty(photoBoothIdSet)) {
+            long version = photoBoothRepository.nextVersion();
+            int updated = photoBoothRepository.updateVersion(photoBoothIdSet.stream().map(Long::valueOf).collect(Collectors.toList()), version);
+            log.info("photo booth counter change flushed. batch : {}, version : {}, size : {}", batchId, version, updated);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                redisTemplate.delete(batchKey);
+                redisTemplate.opsForSet().remove(PENDING_BATCH_KEY, batchId);
+            }
+        });
+    }
+
+    private String batchKey(String batchId) {
+        return BATCH_KEY_PREFIX + batchId;
+    }
+
+    private void addCounterChanged(String[] photoBoothIdArray) {
+        try {
+            redisTemplate.opsForSet().add(DIRTY_KEY, photoBoothIdArray);
+        } catch (RuntimeException e) {
+            // 포토부스 row 는 이미 commit 됐으므로 요청은 실패시키지 않음
+            log.error("photo booth counter change lost. size : {}", photoBoothIdArray.length, e);
+        }
+    }
+
+    /**
+     * 한 번에 생성/변경되는 포토부스는 같은 버전을 받음
+     */
+    public void markChanged(List<PhotoBoothEntity> photoBoothEntityList) {
+        if (CollectionUtils.isEmpty(photoBoothEntityList)) {
+            return;
+        }
+        long version = photoBoothRepository.nextVersion();
+        photoBoothEntityList.forEach(photoBoothEntity -> photoBoothEntity.updateVersion(version));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PhotoBoothEntity> getChangedPhotoBoothList(long since, long lastId, int size) {
+        return photoBoothRepository.findAllByVersionAfter(since, lastId, PageRequest.of(0, size));
+    }
+}
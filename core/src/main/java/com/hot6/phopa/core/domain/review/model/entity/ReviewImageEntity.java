@@ -37,8 +37,4 @@ public class ReviewImageEntity extends BaseTimeEntity implements Serializable {
 
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "reviewImage", orphanRemoval = true)
     private Set<ReviewImageLikeEntity> reviewImageLikeSet;
-
-    public void updateLikeCount(int count) {
-        this.likeCount += count;
-    }
 }
@@ -2,6 +2,7 @@ package com.hot6.phopa.core.domain.review.repository;
 
 import com.hot6.phopa.core.domain.review.model.entity.ReviewImageLikeEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,4 +18,15 @@ public interface ReviewImageLikeRepository extends JpaRepository<ReviewImageLike
 
     @Query("SELECT reviewImageLike FROM ReviewImageLikeEntity reviewImageLike where reviewImageLike.user.id = :userId and reviewImageLike.reviewImage.review.status = 'ACTIVE'")
     List<ReviewImageLikeEntity> findAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT reviewImageLike.reviewImage.id FROM ReviewImageLikeEntity reviewImageLike where reviewImageLike.user.id = :userId")
+    List<Long> findReviewImageIdListByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO review_image_like (review_image_id, user_id) VALUES (:reviewImageId, :userId)", nativeQuery = true)
+    int insertIgnore(@Param(value = "reviewImageId") Long reviewImageId, @Param(value = "userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM review_image_like WHERE review_image_id = :reviewImageId AND user_id = :userId", nativeQuery = true)
+    int deleteByReviewImageIdAndUserId(@Param(value = "reviewImageId") Long reviewImageId, @Param(value = "userId") Long userId);
 }
\ No newline at end of file
@@ -2,8 +2,15 @@ package com.hot6.phopa.core.domain.review.repository;
 
 import com.hot6.phopa.core.domain.review.model.entity.ReviewImageEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ReviewImageRepository extends JpaRepository<ReviewImageEntity, Long>, ReviewImageCustomRepository{
+
+    @Modifying
+    @Query(value = "UPDATE review_image SET like_count = like_count + :delta WHERE id = :reviewImageId", nativeQuery = true)
+    int updateLikeCount(@Param(value = "reviewImageId") Long reviewImageId, @Param(value = "delta") int delta);
 }
@@ -1,15 +1,22 @@
 package com.hot6.phopa.core.domain.review.service;
 
+import com.hot6.phopa.core.common.enumeration.LikeTargetType;
+import com.hot6.phopa.core.common.enumeration.LikeType;
 import com.hot6.phopa.core.common.exception.ApplicationErrorType;
 import com.hot6.phopa.core.common.exception.SilentApplicationErrorException;
 import com.hot6.phopa.core.common.model.dto.PageableParam;
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheType;
 import com.hot6.phopa.core.common.model.type.Status;
+import com.hot6.phopa.core.common.service.LikeCountService;
+import com.hot6.phopa.core.common.service.UserLikeService;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewEntity;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewImageEntity;
 import com.hot6.phopa.core.domain.review.model.entity.ReviewImageLikeEntity;
 import com.hot6.phopa.core.domain.review.repository.ReviewImageLikeRepository;
 import com.hot6.phopa.core.domain.review.repository.ReviewImageRepository;
 import com.hot6.phopa.core.domain.review.repository.ReviewRepository;
+import com.hot6.phopa.core.service.RedisCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
@@ -28,33 +35,45 @@ public class ReviewService {
 
     private final ReviewImageRepository reviewImageRepository;
 
+    private final RedisCacheService cacheService;
+
+    private final LikeCountService likeCountService;
+
+    private final UserLikeService userLikeService;
+
     @Transactional(readOnly = true)
     public Page<ReviewEntity> getReview(long photoBoothId, PageableParam pageable) {
         return reviewRepository.findByPhotoBoothId(photoBoothId, pageable);
     }
 
     public ReviewEntity createReview(ReviewEntity reviewEntity) {
-        return reviewRepository.save(reviewEntity);
+        ReviewEntity savedReviewEntity = reviewRepository.save(reviewEntity);
+        cacheService.clearNotFound(CacheKeyEntity.valueKey(CacheType.ReviewNotFound, savedReviewEntity.getId()));
+        return savedReviewEntity;
     }
 
     @Transactional(readOnly = true)
     public ReviewEntity getReviewById(Long reviewId) {
-        return Optional.ofNullable(reviewRepository.findByIdAndStatus(reviewId, Status.ACTIVE)).orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
+        return cacheService.find(CacheKeyEntity.valueKey(CacheType.ReviewNotFound, reviewId), () -> Optional.ofNullable(reviewRepository.findByIdAndStatus(reviewId, Status.ACTIVE)))
+                .orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
     }
 
-    public ReviewImageLikeEntity createReviewImageLikeEntity(ReviewImageLikeEntity reviewImageLikeEntity) {
-        return reviewImageLikeRepository.save(reviewImageLikeEntity);
+    /**
+     * PhotoBoothService.toggleLike 와 같은 방식, 0 이면 같이 들어온 요청이 먼저 좋아요를 누른 것
+     */
+    public LikeType toggleReviewImageLike(Long reviewImageId, Long userId) {
+        if (reviewImageLikeRepository.deleteByReviewImageIdAndUserId(reviewImageId, userId) > 0) {
+            likeCountService.add(LikeTargetType.REVIEW_IMAGE, reviewImageId, -1);
+            userLikeService.changed(LikeTargetType.REVIEW_IMAGE, userId, reviewImageId, false);
+            return LikeType.UNLIKE;
+        }
+        if (reviewImageLikeRepository.insertIgnore(reviewImageId, userId) > 0) {
+            likeCountService.add(LikeTargetType.REVIEW_IMAGE, reviewImageId, 1);
+            userLikeService.changed(LikeTargetType.REVIEW_IMAGE, userId, reviewImageId, true);
+        }
+        return LikeType.LIKE;
     }
 
-    public void deleteReviewImageLike(ReviewImageLikeEntity reviewImageLikeEntity) {
-        reviewImageLikeRepository.delete(reviewImageLikeEntity);
-    }
-
-
-    @Transactional(readOnly = true)
-    public List<ReviewImageLikeEntity> getReviewImageLikeByReviewIdsAndUserId(List<Long> reviewIdList, Long userId) {
-        return reviewImageLikeRepository.findAllByReviewImageIdsAndUserId(reviewIdList, userId);
-    }
     @Transactional(readOnly = true)
 
     public List<ReviewEntity> findAllByUserId(Long userId) {
@@ -69,11 +88,6 @@ public class ReviewService {
         return reviewImageRepository.findById(reviewImageId).orElseThrow(() -> new SilentApplicationErrorException(ApplicationErrorType.COULDNT_FIND_ANY_DATA));
     }
 
-    @Transactional(readOnly = true)
-    public ReviewImageLikeEntity getReviewImageLikeByReviewImageIdAndUserId(Long reviewImageId, Long userId) {
-        return reviewImageLikeRepository.findOneByReviewImageIdAndUserId(reviewImageId, userId);
-    }
-
     @Transactional(readOnly = true)
     public List<ReviewImageLikeEntity> getReviewImageLikeByUserId(Long userId) {
         return reviewImageLikeRepository.findAllByUserId(userId);
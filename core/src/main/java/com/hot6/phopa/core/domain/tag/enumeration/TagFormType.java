@@ -0,0 +1,20 @@
+package com.hot6.phopa.core.domain.tag.enumeration;
+
+import lombok.Getter;
+
+/**
+ * 태그 목록으로 만드는 화면 form (CacheType.TagForm 의 key)
+ */
+@Getter
+public enum TagFormType {
+    PHOTO_BOOTH_FILTER("포토부스 필터"),
+    REVIEW_FORM("리뷰 작성"),
+    POST_FILTER("게시글 필터"),
+    POST_FORM("게시글 작성"),
+    ;
+    private String description;
+
+    TagFormType(String description) {
+        this.description = description;
+    }
+}
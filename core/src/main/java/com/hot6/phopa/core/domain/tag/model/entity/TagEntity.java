@@ -56,13 +56,4 @@ public class TagEntity extends BaseTimeEntity implements Serializable {
 
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "tag", orphanRemoval = true)
     private Set<ReviewTagEntity> reviewTagSet;
-
-    public void updatePhotoBoothCount(int count) {
-        this.photoBoothCount += count;
-    }
-
-    public void updateReviewCount(int count) { this.reviewCount += count;}
-
-    public void updatePostCount(int count) { this.postCount += count;}
-
 }
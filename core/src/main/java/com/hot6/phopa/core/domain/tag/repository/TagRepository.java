@@ -3,8 +3,12 @@ package com.hot6.phopa.core.domain.tag.repository;
 import com.hot6.phopa.core.domain.tag.enumeration.TagType;
 import com.hot6.phopa.core.domain.tag.model.entity.TagEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +16,16 @@ public interface TagRepository extends JpaRepository<TagEntity, Long>, TagCustom
     TagEntity findOneByTitleAndTagType(String title, TagType tagType);
 
     List<TagEntity> findAllByTagType(TagType tagType);
+
+    @Modifying
+    @Query(value = "UPDATE tag SET review_count = review_count + :delta WHERE id IN (:tagIdList)", nativeQuery = true)
+    int updateReviewCount(@Param(value = "tagIdList") Collection<Long> tagIdList, @Param(value = "delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE tag SET post_count = post_count + :delta WHERE id IN (:tagIdList)", nativeQuery = true)
+    int updatePostCount(@Param(value = "tagIdList") Collection<Long> tagIdList, @Param(value = "delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE tag SET photo_booth_count = photo_booth_count + :delta WHERE id IN (:tagIdList)", nativeQuery = true)
+    int updatePhotoBoothCount(@Param(value = "tagIdList") Collection<Long> tagIdList, @Param(value = "delta") int delta);
 }
\ No newline at end of file
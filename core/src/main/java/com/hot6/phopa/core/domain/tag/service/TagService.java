@@ -5,10 +5,12 @@ import com.hot6.phopa.core.domain.tag.enumeration.TagType;
 import com.hot6.phopa.core.domain.tag.repository.TagRepository;
 import com.hot6.phopa.core.domain.tag.model.entity.TagEntity;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +28,24 @@ public class TagService {
     public List<TagEntity> getTagListByTagTypeList(List<TagType> tagTypeList, Boolean onlyKeyword) { return tagRepository.findAllByTagTypeList(tagTypeList, onlyKeyword); }
 
 
+    public void updateReviewCount(Collection<Long> tagIdList, int delta) {
+        if (CollectionUtils.isNotEmpty(tagIdList)) {
+            tagRepository.updateReviewCount(tagIdList, delta);
+        }
+    }
+
+    public void updatePostCount(Collection<Long> tagIdList, int delta) {
+        if (CollectionUtils.isNotEmpty(tagIdList)) {
+            tagRepository.updatePostCount(tagIdList, delta);
+        }
+    }
+
+    public void updatePhotoBoothCount(Collection<Long> tagIdList, int delta) {
+        if (CollectionUtils.isNotEmpty(tagIdList)) {
+            tagRepository.updatePhotoBoothCount(tagIdList, delta);
+        }
+    }
+
     public TagEntity getTagOrCreate(String title, String keyword, TagType tagType) {
         TagEntity tagEntity = tagRepository.findOneByTitleAndTagType(keyword, tagType);
         if(tagEntity == null){
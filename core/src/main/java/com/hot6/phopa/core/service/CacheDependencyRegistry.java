@@ -0,0 +1,53 @@
+package com.hot6.phopa.core.service;
+
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 캐시 key 를 의존 엔티티(CacheDependencyType.key) 의 set 에 등록 (CacheStoreSupport, RedisCacheService 의 pipeline 저장)
+ * 등록된 key 는 CacheInvalidationEvent 가 오면 RedisCacheService.invalidate 에서 한 번에 무효화됨.
+ */
+@Component
+public class CacheDependencyRegistry {
+
+    // 의존 set 은 여러 타입의 key 가 섞이므로 가장 긴 TTL(+ jitter) 로 둠
+    private static final long DEPENDENCY_TTL = Arrays.stream(CacheType.values()).mapToLong(CacheType::getTtl).max().orElse(0) * 11 / 10 + 1;
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+
+    public CacheDependencyRegistry(RedisTemplate<String, byte[]> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void register(CacheKeyEntity key) {
+        if (key.getDependencyKeySet().isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            add(connection, key);
+            return null;
+        });
+    }
+
+    /**
+     * 이미 열려 있는 pipeline 에 같이 보낼 때 (hSetAll 등)
+     */
+    static void add(RedisConnection connection, CacheKeyEntity key) {
+        byte[] member = toBytes(key.getValueKey() != null ? key.getValueKey() : key.getHashKey());
+        for (String dependencyKey : key.getDependencyKeySet()) {
+            connection.setCommands().sAdd(toBytes(dependencyKey), member);
+            connection.keyCommands().expire(toBytes(dependencyKey), DEPENDENCY_TTL);
+        }
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
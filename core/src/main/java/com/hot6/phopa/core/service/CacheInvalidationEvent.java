@@ -0,0 +1,28 @@
+package com.hot6.phopa.core.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 엔티티 변경 이벤트, commit 이후 dependencyKeySet 에 의존하는 캐시를 한 번에 무효화함
+ */
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class CacheInvalidationEvent {
+    // CacheDependencyType.key(id)
+    private Set<String> dependencyKeySet;
+
+    public static CacheInvalidationEvent of(String... dependencyKeys) {
+        return of(new LinkedHashSet<>(Arrays.asList(dependencyKeys)));
+    }
+
+    public CacheInvalidationEvent with(Collection<String> dependencyKeys) {
+        dependencyKeySet.addAll(dependencyKeys);
+        return this;
+    }
+}
@@ -0,0 +1,228 @@
+package com.hot6.phopa.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 캐시 miss 시 같은 key 를 동시에 여러 번 만들지 않도록 조율 (single-flight)
+ * 노드 안에서는 먼저 들어온 요청(leader)만 만들고 나머지는 그 결과를 waitTimeout 까지 기다림.
+ * lock 을 켜면 노드 사이에서도 Redis lock(SET NX PX) 을 잡은 노드만 만들고, 나머지 노드는 캐시에 값이 채워질 때까지 기다림.
+ * 주고받는 값은 직렬화된 byte[] 라 기다린 요청들이 같은 객체를 나눠 갖지 않음.
+ * soft TTL 이 지난 값의 재생성(refreshAsync)은 요청 스레드가 아닌 별도 스레드에서 key 당 하나씩만 실행됨.
+ */
+@Slf4j
+@Service
+public class CacheLoadService {
+
+    private static final String LOCK_KEY_PREFIX = "lock:";
+
+    // 내가 잡은 lock 일 때만 지움
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final boolean lockEnabled;
+
+    private final long lockTtl;
+
+    private final long waitTimeout;
+
+    private final long pollInterval;
+
+    private final Map<String, CompletableFuture<byte[]>> inFlightMap = new ConcurrentHashMap<>();
+
+    private final Set<String> refreshingKeySet = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolTaskExecutor refreshExecutor;
+
+    // 백그라운드 재생성 시 supplier 안의 lazy loading 을 위해 트랜잭션을 열어줌
+    private final TransactionTemplate transactionTemplate;
+
+    public CacheLoadService(RedisTemplate<String, String> redisTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${cache.single-flight.lock-enabled:false}") boolean lockEnabled,
+                            @Value("${cache.single-flight.lock-ttl:3000}") long lockTtl,
+                            @Value("${cache.single-flight.wait-timeout:3000}") long waitTimeout,
+                            @Value("${cache.single-flight.poll-interval:50}") long pollInterval,
+                            @Value("${cache.refresh.pool-size:4}") int refreshPoolSize,
+                            @Value("${cache.refresh.queue-capacity:1000}") int refreshQueueCapacity) {
+        this.redisTemplate = redisTemplate;
+        this.lockEnabled = lockEnabled;
+        this.lockTtl = lockTtl;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.refreshExecutor = new ThreadPoolTaskExecutor();
+        this.refreshExecutor.setCorePoolSize(refreshPoolSize);
+        this.refreshExecutor.setMaxPoolSize(refreshPoolSize);
+        this.refreshExecutor.setQueueCapacity(refreshQueueCapacity);
+        this.refreshExecutor.setThreadNamePrefix("cache-refresh-");
+        this.refreshExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
+    }
+
+    /**
+     * @param key         Redis key (hash 는 hash key + field)
+     * @param cachedValue 캐시에서 현재 값 조회, 없으면 null
+     * @param loader      원본에서 만들어 캐시에 넣고 직렬화된 값을 반환, 원본에도 없으면 null
+     */
+    public byte[] load(String key, Supplier<byte[]> cachedValue, Supplier<byte[]> loader) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> inFlight = inFlightMap.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return await(key, inFlight, loader);
+        }
+        try {
+            byte[] value = lockEnabled ? loadWithLock(key, cachedValue, loader) : loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightMap.remove(key, future);
+        }
+    }
+
+    /**
+     * 백그라운드에서 다시 만들어 캐시에 넣음. 이미 재생성 중인 key 거나 큐가 가득 차면 건너뜀 (stale 값은 계속 내려감)
+     */
+    public void refreshAsync(String key, Supplier<byte[]> loader) {
+        if (refreshingKeySet.add(key) == false) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(key, loader);
+                } catch (Exception e) {
+                    log.warn("cache refresh failed. key : {}", key, e);
+                } finally {
+                    refreshingKeySet.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            refreshingKeySet.remove(key);
+        }
+    }
+
+    private void refresh(String key, Supplier<byte[]> loader) {
+        if (lockEnabled == false) {
+            transactionTemplate.execute(status -> loader.get());
+            return;
+        }
+        // 다른 노드가 재생성 중이면 넘어감
+        String lockKey = LOCK_KEY_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        if (tryLock(lockKey, token)) {
+            try {
+                transactionTemplate.execute(status -> loader.get());
+            } finally {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    private byte[] loadWithLock(String key, Supplier<byte[]> cachedValue, Supplier<byte[]> loader) {
+        String lockKey = LOCK_KEY_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        if (tryLock(lockKey, token)) {
+            try {
+                // lock 을 기다리는 사이 다른 노드가 채웠을 수 있음
+                byte[] value = cachedValue.get();
+                return value != null ? value : loader.get();
+            } finally {
+                unlock(lockKey, token);
+            }
+        }
+        long deadline = System.currentTimeMillis() + waitTimeout;
+        while (System.currentTimeMillis() < deadline) {
+            if (sleep() == false) {
+                break;
+            }
+            byte[] value = cachedValue.get();
+            if (value != null) {
+                return value;
+            }
+            // lock 이 풀렸는데 값이 없으면 leader 가 실패했거나 원본에 없는 것
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(lockKey)) == false) {
+                break;
+            }
+        }
+        return loader.get();
+    }
+
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl, TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            // lock 을 못 쓰면 노드 안의 single-flight 만으로 진행
+            log.warn("cache lock failed. key : {}", lockKey, e);
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey), token);
+        } catch (Exception e) {
+            log.warn("cache unlock failed. key : {}", lockKey, e);
+        }
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(pollInterval);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // leader 가 오래 걸리면 기다리는 요청도 무한정 묶이지 않도록 waitTimeout 이후에는 직접 만듦
+    private byte[] await(String key, CompletableFuture<byte[]> inFlight, Supplier<byte[]> loader) {
+        try {
+            return inFlight.get(waitTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("cache load wait timeout. key : {}", key);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+}
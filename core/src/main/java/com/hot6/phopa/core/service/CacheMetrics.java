@@ -0,0 +1,93 @@
+package com.hot6.phopa.core.service;
+
+import com.hot6.phopa.core.common.model.type.CacheType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * CacheType / operation 별 캐시 지표 (/actuator/metrics)
+ * phopa.cache.gets         : 조회 결과 (result = local_hit, hit, miss)
+ * phopa.cache.puts         : 저장 횟수
+ * phopa.cache.evictions    : 삭제 / stale 표시 횟수
+ * phopa.cache.load         : miss 시 supplier 실행 시간 (result = success, empty, failure)
+ * phopa.cache.value.size   : 저장되는 값 크기(byte) 분포
+ */
+@Component
+public class CacheMetrics {
+
+    public static final String LOCAL_HIT = "local_hit";
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+
+    private final MeterRegistry meterRegistry;
+
+    // 매 호출마다 meter 를 찾지 않도록 들고 있음
+    private final Map<String, Counter> counterMap = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timerMap = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaryMap = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordGet(CacheType type, String operation, String result) {
+        counter("phopa.cache.gets", type, operation, result).increment();
+    }
+
+    public void recordGet(CacheType type, String operation, boolean hit) {
+        recordGet(type, operation, hit ? HIT : MISS);
+    }
+
+    public void recordPut(CacheType type, String operation, int size) {
+        counter("phopa.cache.puts", type, operation, null).increment();
+        summaryMap.computeIfAbsent(type.name() + ":" + operation, key -> DistributionSummary.builder("phopa.cache.value.size")
+                .baseUnit("bytes")
+                .tag("type", type.getName())
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)).record(size);
+    }
+
+    public void recordEviction(CacheType type, String operation) {
+        counter("phopa.cache.evictions", type, operation, null).increment();
+    }
+
+    /**
+     * supplier 실행 시간 기록, null 을 반환하면 result = empty
+     */
+    public <T> T recordLoad(CacheType type, String operation, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        String result = "failure";
+        try {
+            T data = supplier.get();
+            result = data == null ? "empty" : "success";
+            return data;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String loadResult = result;
+            timerMap.computeIfAbsent(type.name() + ":" + operation + ":" + loadResult, key -> Timer.builder("phopa.cache.load")
+                    .tag("type", type.getName())
+                    .tag("operation", operation)
+                    .tag("result", loadResult)
+                    .register(meterRegistry)).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Counter counter(String name, CacheType type, String operation, String result) {
+        return counterMap.computeIfAbsent(name + ":" + type.name() + ":" + operation + ":" + result, key -> {
+            Counter.Builder builder = Counter.builder(name).tag("type", type.getName()).tag("operation", operation);
+            if (result != null) {
+                builder.tag("result", result);
+            }
+            return builder.register(meterRegistry);
+        });
+    }
+}
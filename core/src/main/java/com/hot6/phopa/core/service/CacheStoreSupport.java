@@ -0,0 +1,54 @@
+package com.hot6.phopa.core.service;
+
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis 에 값을 쓴 뒤 할 일 (의존 등록, L1 반영 + 다른 노드 무효화, 지표)
+ * RedisCacheService 와 ReactiveRedisCacheService 가 같이 써서 두 구현이 같은 규칙으로 저장됨.
+ * operation 이 null 이면 지표를 남기지 않음 (stale 표시 등)
+ */
+@Component
+public class CacheStoreSupport {
+
+    private final CacheDependencyRegistry cacheDependencyRegistry;
+    private final LocalCacheService localCacheService;
+    private final CacheMetrics cacheMetrics;
+
+    public CacheStoreSupport(CacheDependencyRegistry cacheDependencyRegistry, LocalCacheService localCacheService, CacheMetrics cacheMetrics) {
+        this.cacheDependencyRegistry = cacheDependencyRegistry;
+        this.localCacheService = localCacheService;
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    public void stored(CacheKeyEntity key, byte[] value, String operation) {
+        cacheDependencyRegistry.register(key);
+        cached(key, value, operation);
+    }
+
+    public void hStored(CacheKeyEntity key, byte[] value, String operation) {
+        cacheDependencyRegistry.register(key);
+        hCached(key, value, operation);
+    }
+
+    /**
+     * 의존 등록을 저장 pipeline 에 같이 보낸 경우 (setAll, hSetAll)
+     */
+    public void cached(CacheKeyEntity key, byte[] value, String operation) {
+        localCacheService.put(key, value);
+        localCacheService.publishChanged(key);
+        recordPut(key, value, operation);
+    }
+
+    public void hCached(CacheKeyEntity key, byte[] value, String operation) {
+        localCacheService.hPut(key, value);
+        localCacheService.publishChanged(key);
+        recordPut(key, value, operation);
+    }
+
+    private void recordPut(CacheKeyEntity key, byte[] value, String operation) {
+        if (operation != null) {
+            cacheMetrics.recordPut(key.getType(), operation, value.length);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.hot6.phopa.core.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Redis 에 저장되는 캐시 값의 헤더를 푼 결과 (CacheValueCodec 참고)
+ * delta 는 값을 만드는 데 걸린 시간(ms) 으로 XFetch 조기 갱신 확률 계산에 씀.
+ */
+final class CacheValue {
+
+    private final boolean smile;
+    private final long softExpireAt;
+    private final long delta;
+    private final byte[] payload;
+
+    CacheValue(boolean smile, long softExpireAt, long delta, byte[] payload) {
+        this.smile = smile;
+        this.softExpireAt = softExpireAt;
+        this.delta = delta;
+        this.payload = payload;
+    }
+
+    /**
+     * 헤더 없이 JSON 문자열로 저장돼 있던 값 (INCRBY 카운터 포함), soft TTL 이 지나지 않은 것으로 봄
+     */
+    static CacheValue legacy(byte[] value) {
+        return new CacheValue(false, Long.MAX_VALUE, 0, value);
+    }
+
+    boolean isSmile() {
+        return smile;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    boolean isStale(long now) {
+        return now >= softExpireAt;
+    }
+
+    /**
+     * XFetch: now - delta * beta * ln(rand) >= softExpireAt 이면 갱신
+     * 만드는 데 오래 걸리는 값일수록, soft TTL 에 가까울수록 먼저 갱신될 확률이 높아 key 들의 갱신 시점이 흩어짐.
+     */
+    boolean shouldRefresh(long now, double beta) {
+        if (isStale(now)) {
+            return true;
+        }
+        if (delta <= 0 || beta <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return now - delta * beta * Math.log(random) >= softExpireAt;
+    }
+
+    static long readLong(byte[] value, int offset) {
+        return ByteBuffer.wrap(value, offset, Long.BYTES).getLong();
+    }
+}
@@ -0,0 +1,186 @@
+package com.hot6.phopa.core.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hot6.phopa.core.common.exception.ApplicationErrorException;
+import com.hot6.phopa.core.common.exception.ApplicationErrorType;
+import com.hot6.phopa.core.common.model.type.CacheCodecType;
+import com.hot6.phopa.core.common.model.type.CacheType;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 캐시 값 직렬화. CacheType 별로 JSON / Smile 을 고르고 compressThreshold 이상이면 LZ4 로 압축함.
+ * [0xCA][flags][softExpireAt(8), delta(8) : soft TTL][원본 길이(4) : LZ4][payload]
+ * 첫 바이트가 0xCA 가 아니면 헤더 없이 저장된 JSON 문자열로 읽음 (이전 버전 값, INCRBY 카운터)
+ */
+@Service
+public class CacheValueCodec {
+
+    private static final byte MAGIC = (byte) 0xCA;
+    private static final int FLAG_SMILE = 0x01;
+    private static final int FLAG_LZ4 = 0x02;
+    private static final int FLAG_SOFT_TTL = 0x04;
+    private static final int SOFT_TTL_OFFSET = 2;
+
+    private final ObjectMapper jsonMapper;
+
+    private final ObjectMapper smileMapper;
+
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    // 앱 ObjectMapper 와 같은 설정(모듈, unknown property 무시 등)으로 JSON / Smile mapper 를 만듦
+    public CacheValueCodec(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.jsonMapper = objectMapperBuilder.build();
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+    }
+
+    public byte[] encode(CacheType type, Object value) {
+        return encode(type, value, 0);
+    }
+
+    /**
+     * @param delta 값을 만드는 데 걸린 시간(ms), soft TTL 타입만 저장
+     */
+    public byte[] encode(CacheType type, Object value, long delta) {
+        return encode(type.getCodecType(), type.getCompressThreshold(), type.isSoftExpirable() ? type.getSoftTtl() : 0, value, delta);
+    }
+
+    /**
+     * @param softTtl soft TTL(초), 0 이면 soft TTL 헤더를 붙이지 않음
+     */
+    public byte[] encode(CacheCodecType codecType, int compressThreshold, long softTtl, Object value, long delta) {
+        boolean smile = CacheCodecType.SMILE.equals(codecType);
+        byte[] payload = write(smile ? smileMapper : jsonMapper, value);
+        int flags = smile ? FLAG_SMILE : 0;
+        byte[] compressed = null;
+        if (compressThreshold > 0 && payload.length >= compressThreshold) {
+            compressed = compress(payload);
+            // 줄지 않으면 압축하지 않음
+            if (compressed.length + Integer.BYTES < payload.length) {
+                flags |= FLAG_LZ4;
+            } else {
+                compressed = null;
+            }
+        }
+        if (softTtl > 0) {
+            flags |= FLAG_SOFT_TTL;
+        }
+        byte[] body = compressed == null ? payload : compressed;
+        ByteBuffer buffer = ByteBuffer.allocate(2 + (softTtl > 0 ? Long.BYTES * 2 : 0) + (compressed == null ? 0 : Integer.BYTES) + body.length);
+        buffer.put(MAGIC).put((byte) flags);
+        if (softTtl > 0) {
+            buffer.putLong(System.currentTimeMillis() + softTtl * 1000).putLong(delta);
+        }
+        if (compressed != null) {
+            buffer.putInt(payload.length);
+        }
+        buffer.put(body);
+        return buffer.array();
+    }
+
+    public <T> T decode(byte[] value, Class<T> clazz) {
+        return read(parse(value), clazz);
+    }
+
+    public <T> List<T> decodeList(byte[] value, Class<T> clazz) {
+        return readList(parse(value), clazz);
+    }
+
+    /**
+     * hGetEntire 처럼 문자열로 내려줘야 하는 경우 JSON 문자열로 변환
+     */
+    public String toJsonString(byte[] value) {
+        CacheValue cacheValue = parse(value);
+        if (cacheValue.isSmile() == false) {
+            return new String(cacheValue.getPayload(), StandardCharsets.UTF_8);
+        }
+        return read(cacheValue, JsonNode.class).toString();
+    }
+
+    CacheValue parse(byte[] value) {
+        if (value.length < 2 || value[0] != MAGIC) {
+            return CacheValue.legacy(value);
+        }
+        int flags = value[1];
+        int offset = 2;
+        long softExpireAt = Long.MAX_VALUE;
+        long delta = 0;
+        if ((flags & FLAG_SOFT_TTL) != 0) {
+            softExpireAt = CacheValue.readLong(value, offset);
+            delta = CacheValue.readLong(value, offset + Long.BYTES);
+            offset += Long.BYTES * 2;
+        }
+        byte[] payload;
+        if ((flags & FLAG_LZ4) != 0) {
+            int length = ByteBuffer.wrap(value, offset, Integer.BYTES).getInt();
+            offset += Integer.BYTES;
+            payload = new byte[length];
+            decompressor.decompress(value, offset, payload, 0, length);
+        } else {
+            payload = Arrays.copyOfRange(value, offset, value.length);
+        }
+        return new CacheValue((flags & FLAG_SMILE) != 0, softExpireAt, delta, payload);
+    }
+
+    /**
+     * soft TTL 을 지난 것으로 바꾼 값, soft TTL 헤더가 없으면 null
+     */
+    byte[] toStale(byte[] value) {
+        if (value.length < 2 || value[0] != MAGIC || (value[1] & FLAG_SOFT_TTL) == 0) {
+            return null;
+        }
+        byte[] stale = Arrays.copyOf(value, value.length);
+        ByteBuffer.wrap(stale, SOFT_TTL_OFFSET, Long.BYTES).putLong(0L);
+        return stale;
+    }
+
+    <T> T read(CacheValue cacheValue, Class<T> clazz) {
+        try {
+            return mapper(cacheValue).readValue(cacheValue.getPayload(), clazz);
+        } catch (IOException e) {
+            throw new ApplicationErrorException(ApplicationErrorType.JSON_PARSING_ERROR);
+        }
+    }
+
+    <T> List<T> readList(CacheValue cacheValue, Class<T> clazz) {
+        ObjectMapper mapper = mapper(cacheValue);
+        CollectionType collectionType = mapper.getTypeFactory().constructCollectionType(List.class, clazz);
+        try {
+            return mapper.readValue(cacheValue.getPayload(), collectionType);
+        } catch (IOException e) {
+            throw new ApplicationErrorException(ApplicationErrorType.JSON_PARSING_ERROR);
+        }
+    }
+
+    private ObjectMapper mapper(CacheValue cacheValue) {
+        return cacheValue.isSmile() ? smileMapper : jsonMapper;
+    }
+
+    private byte[] write(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new ApplicationErrorException(ApplicationErrorType.JSON_PARSING_ERROR);
+        }
+    }
+
+    private byte[] compress(byte[] payload) {
+        byte[] compressed = new byte[compressor.maxCompressedLength(payload.length)];
+        int length = compressor.compress(payload, 0, payload.length, compressed, 0, compressed.length);
+        return Arrays.copyOf(compressed, length);
+    }
+}
@@ -2,9 +2,12 @@ package com.hot6.phopa.core.service;
 
 import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 interface CacheService {
@@ -29,6 +32,37 @@ interface CacheService {
 
     <T> void set(CacheKeyEntity key, T value);
 
+    /**
+     * 결과는 keyList 순서, 캐시에 없는 key 는 null
+     */
+    <T> List<T> getAll(List<CacheKeyEntity> keyList, Class<T> clazz);
+
+    /**
+     * 캐시에 없는 key 들만 loader 로 한 번에 읽어 채움. loader 결과에 없는 key 는 null 로 남음
+     */
+    default <T> List<T> getAll(List<CacheKeyEntity> keyList, Function<List<CacheKeyEntity>, Map<CacheKeyEntity, T>> loader, Class<T> clazz) {
+        List<T> data = getAll(keyList, clazz);
+        List<CacheKeyEntity> missKeyList = new ArrayList<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            if (data.get(i) == null) {
+                missKeyList.add(keyList.get(i));
+            }
+        }
+        if (missKeyList.isEmpty()) {
+            return data;
+        }
+        Map<CacheKeyEntity, T> loadedMap = loader.apply(missKeyList);
+        setAll(loadedMap);
+        for (int i = 0; i < keyList.size(); i++) {
+            if (data.get(i) == null) {
+                data.set(i, loadedMap.get(keyList.get(i)));
+            }
+        }
+        return data;
+    }
+
+    <T> void setAll(Map<CacheKeyEntity, T> valueMap);
+
     default <T> List<T> getList(CacheKeyEntity key, Supplier<List<T>> supplier, Class<T> clazz) {
         List<T> data = getList(key, clazz);
 
@@ -58,8 +92,38 @@ interface CacheService {
 
     <T> List<T> getList(CacheKeyEntity key, Class<T> clazz);
 
+    /**
+     * key 에 tombstone 이 있으면 supplier 를 부르지 않고 empty, supplier 결과가 empty 면 tombstone 을 남김
+     */
+    default <T> Optional<T> find(CacheKeyEntity notFoundKey, Supplier<Optional<T>> supplier) {
+        if (isNotFound(notFoundKey)) {
+            return Optional.empty();
+        }
+        Optional<T> data = supplier.get();
+        if (data.isEmpty()) {
+            markNotFound(notFoundKey);
+        }
+        return data;
+    }
+
+    boolean isNotFound(CacheKeyEntity notFoundKey);
+
+    void markNotFound(CacheKeyEntity notFoundKey);
+
+    /**
+     * 트랜잭션 안이면 commit 이후에 지움
+     */
+    void clearNotFound(CacheKeyEntity notFoundKey);
+
+    /**
+     * dependencyKey(CacheDependencyType.key) 에 의존하는 캐시를 모두 무효화 (soft TTL 타입은 stale 로 표시)
+     */
+    void invalidate(Collection<String> dependencyKeys);
+
     void del(CacheKeyEntity key);
 
+    void markStale(CacheKeyEntity key);
+
     void expire(CacheKeyEntity key);
 
     long decrBy(CacheKeyEntity key, long decrement);
@@ -103,6 +167,13 @@ interface CacheService {
 
     <T> Optional<T> hGet(CacheKeyEntity key, Class<T> clazz);
 
+    /**
+     * 결과는 keyList 순서, 캐시에 없는 field 는 null
+     */
+    <T> List<T> hGetAll(List<CacheKeyEntity> keyList, Class<T> clazz);
+
+    <T> void hSetAll(Map<CacheKeyEntity, T> valueMap);
+
     Map<String, String> hGetEntire(CacheKeyEntity key);
 
     default <T> T hSet(CacheKeyEntity key, Supplier<T> supplier) {
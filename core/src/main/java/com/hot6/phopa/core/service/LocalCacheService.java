@@ -0,0 +1,178 @@
+package com.hot6.phopa.core.service;
+
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import com.hot6.phopa.core.common.model.type.CacheType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisCacheService 앞단의 노드 로컬(L1) 캐시
+ * 조회한 쪽에서 값을 수정하는 경우가 있어서(ex. PhotoBoothDetailResponse.setLike) 객체가 아니라 Redis 에 저장된 byte[] 그대로 들고 있음.
+ * 값이 바뀌거나 지워지면 pub/sub 으로 다른 노드에 알려 L1 에서 지우게 함.
+ */
+@Slf4j
+@Service
+public class LocalCacheService implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+    private static final String DELIMITER = "\t";
+    private static final String VALUE = "v";
+    private static final String HASH = "h";
+    private static final String HASH_FIELD = "f";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final boolean enabled;
+
+    // 자기가 보낸 무효화 메세지는 무시하기 위한 노드 id
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<CacheType, Cache<String, byte[]>> valueCacheMap = new EnumMap<>(CacheType.class);
+
+    // hash key -> (hash field -> value), hash key 단위 삭제가 많아서 hash key 로 묶어 둠
+    private final Map<CacheType, Cache<String, Map<String, byte[]>>> hashCacheMap = new EnumMap<>(CacheType.class);
+
+    public LocalCacheService(RedisTemplate<String, String> redisTemplate,
+                             @Value("${cache.local.enabled:false}") boolean enabled) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        for (CacheType type : CacheType.values()) {
+            if (type.isLocalCacheable()) {
+                valueCacheMap.put(type, CacheBuilder.newBuilder().maximumSize(type.getLocalMaxSize()).expireAfterWrite(type.getLocalTtl(), TimeUnit.SECONDS).build());
+                hashCacheMap.put(type, CacheBuilder.newBuilder().maximumSize(type.getLocalMaxSize()).expireAfterWrite(type.getLocalTtl(), TimeUnit.SECONDS).build());
+            }
+        }
+    }
+
+    public boolean isEnabled(CacheType type) {
+        return enabled && type != null && type.isLocalCacheable();
+    }
+
+    public byte[] get(CacheKeyEntity key) {
+        if (isEnabled(key.getType()) == false) {
+            return null;
+        }
+        return valueCacheMap.get(key.getType()).getIfPresent(key.getValueKey());
+    }
+
+    public void put(CacheKeyEntity key, byte[] value) {
+        if (isEnabled(key.getType()) && value != null) {
+            valueCacheMap.get(key.getType()).put(key.getValueKey(), value);
+        }
+    }
+
+    public byte[] hGet(CacheKeyEntity key) {
+        if (isEnabled(key.getType()) == false) {
+            return null;
+        }
+        Map<String, byte[]> fieldMap = hashCacheMap.get(key.getType()).getIfPresent(key.getHashKey());
+        return fieldMap == null ? null : fieldMap.get(key.getHashField());
+    }
+
+    public void hPut(CacheKeyEntity key, byte[] value) {
+        if (isEnabled(key.getType()) == false || value == null) {
+            return;
+        }
+        try {
+            hashCacheMap.get(key.getType()).get(key.getHashKey(), ConcurrentHashMap::new).put(key.getHashField(), value);
+        } catch (Exception e) {
+            log.warn("local cache put failed. key : {}", key.getHashKey(), e);
+        }
+    }
+
+    /**
+     * 로컬에서 지우고 다른 노드에도 지우라고 알림
+     */
+    public void evict(CacheKeyEntity key) {
+        if (isEnabled(key.getType())) {
+            evictLocal(key.getType(), VALUE, key.getValueKey(), null);
+            publish(key.getType(), VALUE, key.getValueKey(), null);
+        }
+    }
+
+    public void hEvict(CacheKeyEntity key) {
+        if (isEnabled(key.getType())) {
+            evictLocal(key.getType(), HASH, key.getHashKey(), null);
+            publish(key.getType(), HASH, key.getHashKey(), null);
+        }
+    }
+
+    public void hEvictField(CacheKeyEntity key) {
+        if (isEnabled(key.getType())) {
+            evictLocal(key.getType(), HASH_FIELD, key.getHashKey(), key.getHashField());
+            publish(key.getType(), HASH_FIELD, key.getHashKey(), key.getHashField());
+        }
+    }
+
+    /**
+     * 값이 덮어써진 경우, 로컬은 새 값을 넣고 다른 노드에만 지우라고 알림
+     */
+    public void publishChanged(CacheKeyEntity key) {
+        if (isEnabled(key.getType()) == false) {
+            return;
+        }
+        if (key.getHashKey() != null) {
+            publish(key.getType(), HASH_FIELD, key.getHashKey(), key.getHashField());
+        } else {
+            publish(key.getType(), VALUE, key.getValueKey(), null);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // nodeId, type, operation, key, (field)
+        String[] token = new String(message.getBody(), StandardCharsets.UTF_8).split(DELIMITER, -1);
+        if (token.length < 4 || nodeId.equals(token[0])) {
+            return;
+        }
+        try {
+            evictLocal(CacheType.valueOf(token[1]), token[2], token[3], token.length > 4 ? token[4] : null);
+        } catch (IllegalArgumentException e) {
+            // 배포 중 다른 버전 노드가 보낸 모르는 CacheType
+            log.warn("unknown cache invalidation message. {}", token[1]);
+        }
+    }
+
+    private void evictLocal(CacheType type, String operation, String key, String field) {
+        if (isEnabled(type) == false) {
+            return;
+        }
+        if (VALUE.equals(operation)) {
+            valueCacheMap.get(type).invalidate(key);
+        } else if (HASH.equals(operation)) {
+            hashCacheMap.get(type).invalidate(key);
+        } else if (HASH_FIELD.equals(operation)) {
+            Map<String, byte[]> fieldMap = hashCacheMap.get(type).getIfPresent(key);
+            if (fieldMap != null) {
+                fieldMap.remove(field);
+            }
+        }
+    }
+
+    private void publish(CacheType type, String operation, String key, String field) {
+        StringBuilder sb = new StringBuilder(nodeId).append(DELIMITER).append(type.name()).append(DELIMITER).append(operation).append(DELIMITER).append(key);
+        if (field != null) {
+            sb.append(DELIMITER).append(field);
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, sb.toString());
+        } catch (Exception e) {
+            // 전파에 실패해도 다른 노드의 L1 은 localTtl 이 지나면 사라짐
+            log.warn("cache invalidation publish failed. key : {}", key, e);
+        }
+    }
+}
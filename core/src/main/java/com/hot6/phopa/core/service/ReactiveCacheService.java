@@ -0,0 +1,74 @@
+package com.hot6.phopa.core.service;
+
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * CacheService 의 non-blocking 버전, 같은 key / 저장 형식을 씀
+ * 캐시에 없으면 Mono.empty() 를 반환함
+ */
+interface ReactiveCacheService {
+    /**
+     * Value Operation
+     */
+    default <T> Mono<T> get(CacheKeyEntity key, Supplier<Mono<T>> supplier, Class<T> clazz) {
+        return get(key, clazz).switchIfEmpty(Mono.defer(() -> set(key, supplier)));
+    }
+
+    <T> Mono<T> get(CacheKeyEntity key, Class<T> clazz);
+
+    default <T> Mono<T> set(CacheKeyEntity key, Supplier<Mono<T>> supplier) {
+        return supplier.get().flatMap(data -> set(key, data).thenReturn(data));
+    }
+
+    <T> Mono<Boolean> set(CacheKeyEntity key, T value);
+
+    default <T> Mono<List<T>> getList(CacheKeyEntity key, Supplier<Mono<List<T>>> supplier, Class<T> clazz) {
+        return getList(key, clazz).switchIfEmpty(Mono.defer(() -> supplier.get().flatMap(data -> set(key, data).thenReturn(data))));
+    }
+
+    <T> Mono<List<T>> getList(CacheKeyEntity key, Class<T> clazz);
+
+    /**
+     * 결과는 keyList 순서, 캐시에 없는 key 는 null
+     */
+    <T> Mono<List<T>> getAll(List<CacheKeyEntity> keyList, Class<T> clazz);
+
+    Mono<Boolean> del(CacheKeyEntity key);
+
+    Mono<Boolean> markStale(CacheKeyEntity key);
+
+    Mono<Boolean> expire(CacheKeyEntity key);
+
+    Mono<Long> decrBy(CacheKeyEntity key, long decrement);
+
+    Mono<Long> incrBy(CacheKeyEntity key, long increment);
+
+    Mono<Boolean> exist(CacheKeyEntity key);
+
+    /**
+     * Hash Operation
+     */
+    default <T> Mono<T> hGet(CacheKeyEntity key, Supplier<Mono<T>> supplier, Class<T> clazz) {
+        return hGet(key, clazz).switchIfEmpty(Mono.defer(() -> supplier.get().flatMap(data -> hSet(key, data).thenReturn(data))));
+    }
+
+    <T> Mono<T> hGet(CacheKeyEntity key, Class<T> clazz);
+
+    <T> Mono<Boolean> hSet(CacheKeyEntity key, T value);
+
+    default <T> Mono<List<T>> hGetList(CacheKeyEntity key, Supplier<Mono<List<T>>> supplier, Class<T> clazz) {
+        return hGetList(key, clazz).switchIfEmpty(Mono.defer(() -> supplier.get().flatMap(data -> hSet(key, data).thenReturn(data))));
+    }
+
+    <T> Mono<List<T>> hGetList(CacheKeyEntity key, Class<T> clazz);
+
+    Mono<Boolean> hExpire(CacheKeyEntity key);
+
+    Mono<Boolean> hDelByHashKey(CacheKeyEntity key);
+
+    Mono<Boolean> hDelByHashKeyAndHashField(CacheKeyEntity key);
+}
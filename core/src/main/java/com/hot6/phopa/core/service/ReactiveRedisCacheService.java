@@ -0,0 +1,282 @@
+package com.hot6.phopa.core.service;
+
+import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * ReactiveRedisTemplate 기반 캐시, 값 형식 / 로컬(L1) 캐시 / soft TTL / 지표는 RedisCacheService 와 같음
+ * 저장 후 처리(의존 등록, L1 반영, 지표)는 CacheStoreSupport 를 같이 씀
+ * miss 시 같은 key 의 supplier 는 노드 안에서 한 번만 구독됨
+ */
+@Slf4j
+@Service
+public class ReactiveRedisCacheService implements ReactiveCacheService {
+
+    private final ReactiveRedisTemplate<String, byte[]> reactiveRedisTemplate;
+    private final CacheValueCodec cacheValueCodec;
+    private final ReactiveValueOperations<String, byte[]> valueOps;
+    private final ReactiveHashOperations<String, String, byte[]> hashOps;
+    private final LocalCacheService localCacheService;
+    private final CacheStoreSupport cacheStoreSupport;
+    private final CacheMetrics cacheMetrics;
+    private final double refreshBeta;
+
+    private final Map<String, Mono<byte[]>> inFlightMap = new ConcurrentHashMap<>();
+
+    public ReactiveRedisCacheService(ReactiveRedisTemplate<String, byte[]> reactiveRedisTemplate, CacheValueCodec cacheValueCodec,
+                                     LocalCacheService localCacheService, CacheStoreSupport cacheStoreSupport, CacheMetrics cacheMetrics,
+                                     @Value("${cache.refresh.beta:1.0}") double refreshBeta) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.cacheValueCodec = cacheValueCodec;
+        this.localCacheService = localCacheService;
+        this.cacheStoreSupport = cacheStoreSupport;
+        this.cacheMetrics = cacheMetrics;
+        this.refreshBeta = refreshBeta;
+        this.valueOps = reactiveRedisTemplate.opsForValue();
+        this.hashOps = reactiveRedisTemplate.opsForHash();
+    }
+
+    @Override
+    public <T> Mono<T> get(CacheKeyEntity key, Supplier<Mono<T>> supplier, Class<T> clazz) {
+        return getValue(key, "get")
+                .flatMap(value -> {
+                    CacheValue cacheValue = cacheValueCodec.parse(value);
+                    if (key.getType().isSoftExpirable() && cacheValue.shouldRefresh(System.currentTimeMillis(), refreshBeta)) {
+                        load(key.getValueKey(), () -> loadValue(key, supplier))
+                                .subscribe(null, e -> log.warn("cache refresh failed. key : {}", key.getValueKey(), e));
+                    }
+                    return Mono.justOrEmpty(cacheValueCodec.read(cacheValue, clazz));
+                })
+                .switchIfEmpty(Mono.defer(() -> load(key.getValueKey(), () -> loadValue(key, supplier))
+                        .flatMap(value -> Mono.justOrEmpty(cacheValueCodec.decode(value, clazz)))));
+    }
+
+    @Override
+    public <T> Mono<T> get(CacheKeyEntity key, Class<T> clazz) {
+        return getValue(key, "get").flatMap(value -> Mono.justOrEmpty(cacheValueCodec.decode(value, clazz)));
+    }
+
+    @Override
+    public <T> Mono<Boolean> set(CacheKeyEntity key, T value) {
+        return storeValue(key, cacheValueCodec.encode(key.getType(), value), "set").thenReturn(true);
+    }
+
+    @Override
+    public <T> Mono<List<T>> getList(CacheKeyEntity key, Class<T> clazz) {
+        return getValue(key, "getList").map(value -> cacheValueCodec.decodeList(value, clazz));
+    }
+
+    @Override
+    public <T> Mono<List<T>> getAll(List<CacheKeyEntity> keyList, Class<T> clazz) {
+        List<byte[]> valueList = new ArrayList<>(keyList.size());
+        List<Integer> missIndexList = new ArrayList<>();
+        List<String> missKeyList = new ArrayList<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] value = localCacheService.get(keyList.get(i));
+            valueList.add(value);
+            if (value == null) {
+                missIndexList.add(i);
+                missKeyList.add(keyList.get(i).getValueKey());
+            } else {
+                cacheMetrics.recordGet(keyList.get(i).getType(), "getAll", CacheMetrics.LOCAL_HIT);
+            }
+        }
+        Mono<List<byte[]>> redisValueMono = missKeyList.isEmpty() ? Mono.just(new ArrayList<>()) : valueOps.multiGet(missKeyList);
+        return redisValueMono.map(redisValueList -> {
+            for (int i = 0; i < missIndexList.size() && i < redisValueList.size(); i++) {
+                byte[] value = redisValueList.get(i);
+                valueList.set(missIndexList.get(i), value);
+                localCacheService.put(keyList.get(missIndexList.get(i)), value);
+                cacheMetrics.recordGet(keyList.get(missIndexList.get(i)).getType(), "getAll", ArrayUtils.isNotEmpty(value));
+            }
+            List<T> result = new ArrayList<>(valueList.size());
+            for (byte[] value : valueList) {
+                result.add(ArrayUtils.isEmpty(value) ? null : cacheValueCodec.decode(value, clazz));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Mono<Boolean> del(CacheKeyEntity key) {
+        return reactiveRedisTemplate.delete(key.getValueKey())
+                .flatMap(count -> afterEvict(key, "del", () -> localCacheService.evict(key)).thenReturn(count > 0));
+    }
+
+    @Override
+    public Mono<Boolean> markStale(CacheKeyEntity key) {
+        if (key.getType().isSoftExpirable() == false) {
+            return del(key);
+        }
+        return valueOps.get(key.getValueKey())
+                .flatMap(value -> {
+                    byte[] stale = cacheValueCodec.toStale(value);
+                    return stale == null ? del(key) : storeValue(key, stale, null).thenReturn(true);
+                })
+                .defaultIfEmpty(false);
+    }
+
+    @Override
+    public Mono<Boolean> expire(CacheKeyEntity key) {
+        long ttl = key.getType().getTtl();
+        return ttl > 0 ? reactiveRedisTemplate.expire(key.getValueKey(), Duration.ofSeconds(RedisCacheService.jitter(ttl))) : Mono.just(false);
+    }
+
+    @Override
+    public Mono<Long> decrBy(CacheKeyEntity key, long decrement) {
+        return valueOps.decrement(key.getValueKey(), decrement);
+    }
+
+    @Override
+    public Mono<Long> incrBy(CacheKeyEntity key, long increment) {
+        return valueOps.increment(key.getValueKey(), increment);
+    }
+
+    @Override
+    public Mono<Boolean> exist(CacheKeyEntity key) {
+        return getValue(key, null).map(ArrayUtils::isNotEmpty).defaultIfEmpty(false);
+    }
+
+    @Override
+    public <T> Mono<T> hGet(CacheKeyEntity key, Supplier<Mono<T>> supplier, Class<T> clazz) {
+        return loadHashValue(key, supplier, "hGet").flatMap(value -> Mono.justOrEmpty(cacheValueCodec.decode(value, clazz)));
+    }
+
+    @Override
+    public <T> Mono<T> hGet(CacheKeyEntity key, Class<T> clazz) {
+        return getHashValue(key, "hGet").flatMap(value -> Mono.justOrEmpty(cacheValueCodec.decode(value, clazz)));
+    }
+
+    @Override
+    public <T> Mono<Boolean> hSet(CacheKeyEntity key, T value) {
+        return hStoreValue(key, cacheValueCodec.encode(key.getType(), value), "hSet").thenReturn(true);
+    }
+
+    @Override
+    public <T> Mono<List<T>> hGetList(CacheKeyEntity key, Supplier<Mono<List<T>>> supplier, Class<T> clazz) {
+        return loadHashValue(key, supplier, "hGetList").map(value -> cacheValueCodec.decodeList(value, clazz));
+    }
+
+    @Override
+    public <T> Mono<List<T>> hGetList(CacheKeyEntity key, Class<T> clazz) {
+        return getHashValue(key, "hGetList").map(value -> cacheValueCodec.decodeList(value, clazz));
+    }
+
+    @Override
+    public Mono<Boolean> hExpire(CacheKeyEntity key) {
+        long ttl = key.getType().getTtl();
+        return ttl > 0 ? reactiveRedisTemplate.expire(key.getHashKey(), Duration.ofSeconds(RedisCacheService.jitter(ttl))) : Mono.just(false);
+    }
+
+    @Override
+    public Mono<Boolean> hDelByHashKey(CacheKeyEntity key) {
+        return reactiveRedisTemplate.delete(key.getHashKey())
+                .flatMap(count -> afterEvict(key, "hDel", () -> localCacheService.hEvict(key)).thenReturn(count > 0));
+    }
+
+    @Override
+    public Mono<Boolean> hDelByHashKeyAndHashField(CacheKeyEntity key) {
+        return hashOps.remove(key.getHashKey(), key.getHashField())
+                .flatMap(count -> afterEvict(key, "hDelField", () -> localCacheService.hEvictField(key)).thenReturn(count > 0));
+    }
+
+    // 같은 key 를 만드는 중이면 그 결과를 같이 받음, 끝나면 자기 entry 만 지움 (그 사이 새로 등록된 entry 는 남김)
+    private Mono<byte[]> load(String key, Supplier<Mono<byte[]>> loader) {
+        return inFlightMap.computeIfAbsent(key, k -> {
+            AtomicReference<Mono<byte[]>> inFlight = new AtomicReference<>();
+            inFlight.set(loader.get()
+                    .doFinally(signal -> inFlightMap.remove(k, inFlight.get()))
+                    .cache());
+            return inFlight.get();
+        });
+    }
+
+    private <T> Mono<byte[]> loadValue(CacheKeyEntity key, Supplier<Mono<T>> supplier) {
+        return Mono.defer(() -> {
+            long start = System.currentTimeMillis();
+            return supplier.get().flatMap(data -> storeValue(key, cacheValueCodec.encode(key.getType(), data, System.currentTimeMillis() - start), "set"));
+        });
+    }
+
+    private <T> Mono<byte[]> loadHashValue(CacheKeyEntity key, Supplier<Mono<T>> supplier, String operation) {
+        return getHashValue(key, operation)
+                .switchIfEmpty(Mono.defer(() -> load(key.getHashKey() + CacheKeyEntity.SEPARATOR + key.getHashField(),
+                        () -> supplier.get().flatMap(data -> hStoreValue(key, cacheValueCodec.encode(key.getType(), data), "hSet")))));
+    }
+
+    private Mono<byte[]> storeValue(CacheKeyEntity key, byte[] value, String operation) {
+        long ttl = key.getType().getTtl();
+        Mono<Boolean> set = ttl > 0
+                ? valueOps.set(key.getValueKey(), value, Duration.ofSeconds(RedisCacheService.jitter(ttl)))
+                : valueOps.set(key.getValueKey(), value);
+        return set.then(offEventLoop(() -> cacheStoreSupport.stored(key, value, operation))).thenReturn(value);
+    }
+
+    private Mono<byte[]> hStoreValue(CacheKeyEntity key, byte[] value, String operation) {
+        return hashOps.put(key.getHashKey(), key.getHashField(), value)
+                .then(hExpire(key))
+                .then(offEventLoop(() -> cacheStoreSupport.hStored(key, value, operation)))
+                .thenReturn(value);
+    }
+
+    // 로컬(L1) 캐시에 없을 때만 Redis 조회, operation 이 null 이면 지표를 남기지 않음
+    private Mono<byte[]> getValue(CacheKeyEntity key, String operation) {
+        byte[] value = localCacheService.get(key);
+        if (value != null) {
+            recordGet(key, operation, CacheMetrics.LOCAL_HIT);
+            return Mono.just(value);
+        }
+        return valueOps.get(key.getValueKey())
+                .doOnNext(redisValue -> localCacheService.put(key, redisValue))
+                .doOnSuccess(redisValue -> recordGet(key, operation, ArrayUtils.isEmpty(redisValue) ? CacheMetrics.MISS : CacheMetrics.HIT));
+    }
+
+    private Mono<byte[]> getHashValue(CacheKeyEntity key, String operation) {
+        byte[] value = localCacheService.hGet(key);
+        Mono<byte[]> hashValue = value != null
+                ? Mono.just(value)
+                : hashOps.get(key.getHashKey(), key.getHashField()).doOnNext(redisValue -> localCacheService.hPut(key, redisValue));
+        // soft TTL 타입의 hash field 는 soft TTL 이 지나면 없는 것으로 봄 (RedisCacheService 와 동일)
+        String hit = value != null ? CacheMetrics.LOCAL_HIT : CacheMetrics.HIT;
+        return hashValue.filter(redisValue -> key.getType().isSoftExpirable() == false || cacheValueCodec.parse(redisValue).isStale(System.currentTimeMillis()) == false)
+                .doOnSuccess(redisValue -> recordGet(key, operation, redisValue == null ? CacheMetrics.MISS : hit));
+    }
+
+    private void recordGet(CacheKeyEntity key, String operation, String result) {
+        if (operation != null) {
+            cacheMetrics.recordGet(key.getType(), operation, result);
+        }
+    }
+
+    /**
+     * L1 에서 지우고 다른 노드에 전파, 전파는 blocking RedisTemplate 을 쓰기 때문에 event loop 밖에서 실행함
+     */
+    private Mono<Void> afterEvict(CacheKeyEntity key, String operation, Runnable runnable) {
+        cacheMetrics.recordEviction(key.getType(), operation);
+        if (localCacheService.isEnabled(key.getType()) == false) {
+            return Mono.empty();
+        }
+        return offEventLoop(runnable);
+    }
+
+    // 의존 등록 / 무효화 전파는 blocking RedisTemplate 을 씀
+    private Mono<Void> offEventLoop(Runnable runnable) {
+        return Mono.fromRunnable(runnable).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
@@ -3,62 +3,316 @@ package com.hot6.phopa.core.service;
 
 import com.hot6.phopa.core.common.model.entity.CacheKeyEntity;
 import com.google.common.collect.Maps;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class RedisCacheService implements CacheService {
 
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapperService objectMapperService;
-    private final ValueOperations<String, String> valueOps;
-    private final HashOperations<String, String, String> hashOps;
+    // 의존 set 을 읽고 지우는 사이에 등록된 key 가 무효화 없이 같이 지워지지 않도록 한 번에 처리
+    private static final RedisScript<List> POP_DEPENDENCY_SCRIPT = new DefaultRedisScript<>(
+            "local members = {} "
+                    + "for _, key in ipairs(KEYS) do "
+                    + "for _, member in ipairs(redis.call('smembers', key)) do members[#members + 1] = member end "
+                    + "redis.call('del', key) "
+                    + "end "
+                    + "return members", List.class);
 
-    public RedisCacheService(RedisTemplate<String, String> redisTemplate, ObjectMapperService objectMapperService) {
+    // L1 에 "tombstone 없음" 으로 넣는 값 (isNotFound)
+    private static final byte[] NO_TOMBSTONE = new byte[0];
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final CacheValueCodec cacheValueCodec;
+    private final ValueOperations<String, byte[]> valueOps;
+    private final HashOperations<String, String, byte[]> hashOps;
+    private final LocalCacheService localCacheService;
+    private final CacheLoadService cacheLoadService;
+    private final CacheMetrics cacheMetrics;
+    private final CacheStoreSupport cacheStoreSupport;
+    // XFetch 조기 갱신 계수, 클수록 일찍 갱신함
+    private final double refreshBeta;
+
+    public RedisCacheService(RedisTemplate<String, byte[]> redisTemplate, CacheValueCodec cacheValueCodec,
+                             LocalCacheService localCacheService, CacheLoadService cacheLoadService, CacheMetrics cacheMetrics,
+                             CacheStoreSupport cacheStoreSupport,
+                             @Value("${cache.refresh.beta:1.0}") double refreshBeta) {
         this.redisTemplate = redisTemplate;
-        this.objectMapperService = objectMapperService;
+        this.cacheValueCodec = cacheValueCodec;
+        this.localCacheService = localCacheService;
+        this.cacheLoadService = cacheLoadService;
+        this.cacheMetrics = cacheMetrics;
+        this.cacheStoreSupport = cacheStoreSupport;
+        this.refreshBeta = refreshBeta;
         this.valueOps = redisTemplate.opsForValue();
         this.hashOps = redisTemplate.opsForHash();
     }
 
+    /**
+     * miss 시 같은 key 의 supplier 는 한 번만 실행됨 (CacheLoadService)
+     * soft TTL 이 지났거나 XFetch 에 걸리면 지금 값을 내려주고 백그라운드에서 다시 만듦
+     */
+    @Override
+    public <T> T get(CacheKeyEntity key, Supplier<T> supplier, Class<T> clazz) {
+        byte[] value = getValue(key, "get");
+        if (ArrayUtils.isEmpty(value)) {
+            value = cacheLoadService.load(key.getValueKey(), () -> getValue(key, null), () -> loadValue(key, supplier));
+            return ArrayUtils.isEmpty(value) ? null : cacheValueCodec.decode(value, clazz);
+        }
+        CacheValue cacheValue = cacheValueCodec.parse(value);
+        if (key.getType().isSoftExpirable() && cacheValue.shouldRefresh(System.currentTimeMillis(), refreshBeta)) {
+            cacheLoadService.refreshAsync(key.getValueKey(), () -> loadValue(key, supplier));
+        }
+        return cacheValueCodec.read(cacheValue, clazz);
+    }
+
     @Override
     public <T> Optional<T> get(CacheKeyEntity key, Class<T> clazz) {
-        String value = valueOps.get(key.getValueKey());
-        if (StringUtils.isEmpty(value)) {
+        byte[] value = getValue(key, "get");
+        if (ArrayUtils.isEmpty(value)) {
             return Optional.empty();
         }
 
-        return Optional.of(objectMapperService.getFromJson(value, clazz));
+        return Optional.of(cacheValueCodec.decode(value, clazz));
     }
 
     @Override
     public <T> void set(CacheKeyEntity key, T value) {
-        valueOps.set(key.getValueKey(), objectMapperService.toJsonString(value));
-        expire(key);
+        storeValue(key, cacheValueCodec.encode(key.getType(), value), "set");
+    }
+
+    /**
+     * MGET 으로 한 번에 조회, 로컬 캐시에 있는 것은 빼고 조회함. 결과는 keyList 순서이고 없는 값은 null
+     */
+    @Override
+    public <T> List<T> getAll(List<CacheKeyEntity> keyList, Class<T> clazz) {
+        List<byte[]> valueList = new ArrayList<>(keyList.size());
+        List<Integer> missIndexList = new ArrayList<>();
+        List<String> missKeyList = new ArrayList<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] value = localCacheService.get(keyList.get(i));
+            valueList.add(value);
+            if (value == null) {
+                missIndexList.add(i);
+                missKeyList.add(keyList.get(i).getValueKey());
+            } else {
+                cacheMetrics.recordGet(keyList.get(i).getType(), "getAll", CacheMetrics.LOCAL_HIT);
+            }
+        }
+        if (missKeyList.isEmpty() == false) {
+            List<byte[]> redisValueList = valueOps.multiGet(missKeyList);
+            for (int i = 0; i < missIndexList.size(); i++) {
+                byte[] value = redisValueList == null ? null : redisValueList.get(i);
+                valueList.set(missIndexList.get(i), value);
+                localCacheService.put(keyList.get(missIndexList.get(i)), value);
+                cacheMetrics.recordGet(keyList.get(missIndexList.get(i)).getType(), "getAll", ArrayUtils.isNotEmpty(value));
+            }
+        }
+        return decodeAll(valueList, clazz);
+    }
+
+    /**
+     * SET EX 를 pipeline 으로 한 번에 실행
+     */
+    @Override
+    public <T> void setAll(Map<CacheKeyEntity, T> valueMap) {
+        Map<CacheKeyEntity, byte[]> encodedMap = encodeAll(valueMap);
+        if (encodedMap.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            encodedMap.forEach((key, value) -> {
+                long ttl = key.getType().getTtl();
+                connection.stringCommands().set(toBytes(key.getValueKey()), value,
+                        ttl > 0 ? Expiration.seconds(jitter(ttl)) : Expiration.persistent(), RedisStringCommands.SetOption.upsert());
+                CacheDependencyRegistry.add(connection, key);
+            });
+            return null;
+        });
+        encodedMap.forEach((key, value) -> cacheStoreSupport.cached(key, value, "setAll"));
     }
 
     @Override
     public <T> List<T> getList(CacheKeyEntity key, Class<T> clazz) {
-        String value = valueOps.get(key.getValueKey());
-        if (StringUtils.isEmpty(value)) {
+        byte[] value = getValue(key, "getList");
+        if (ArrayUtils.isEmpty(value)) {
             return null;
         }
 
-        return objectMapperService.getListFromJson(value, clazz);
+        return cacheValueCodec.decodeList(value, clazz);
+    }
+
+    /**
+     * 1. 의존 set 들을 Lua script 로 읽으면서 지우고
+     * 2. soft TTL 타입의 값만 한 번에 읽어 stale 로 바꾼 뒤
+     * 3. stale 값 저장 + 나머지 key 삭제를 하나의 pipeline 으로 보냄
+     */
+    @Override
+    public void invalidate(Collection<String> dependencyKeys) {
+        if (CollectionUtils.isEmpty(dependencyKeys)) {
+            return;
+        }
+        List<?> memberList = redisTemplate.execute(POP_DEPENDENCY_SCRIPT, new ArrayList<>(dependencyKeys));
+        Set<String> memberSet = new LinkedHashSet<>();
+        if (memberList != null) {
+            memberList.forEach(member -> memberSet.add(member instanceof byte[] ? new String((byte[]) member, StandardCharsets.UTF_8) : String.valueOf(member)));
+        }
+        List<CacheKeyEntity> staleKeyList = new ArrayList<>();
+        List<CacheKeyEntity> deleteKeyList = new ArrayList<>();
+        for (String member : memberSet) {
+            CacheKeyEntity key = member.startsWith("hk:") ? CacheKeyEntity.make(member, null) : CacheKeyEntity.make(null, member);
+            if (key.getValueKey() != null && key.getType() != null && key.getType().isSoftExpirable()) {
+                staleKeyList.add(key);
+            } else {
+                deleteKeyList.add(key);
+            }
+        }
+        Map<CacheKeyEntity, byte[]> staleMap = new LinkedHashMap<>();
+        if (staleKeyList.isEmpty() == false) {
+            List<byte[]> valueList = valueOps.multiGet(staleKeyList.stream().map(CacheKeyEntity::getValueKey).collect(Collectors.toList()));
+            for (int i = 0; i < staleKeyList.size(); i++) {
+                byte[] value = valueList == null ? null : valueList.get(i);
+                byte[] stale = ArrayUtils.isEmpty(value) ? null : cacheValueCodec.toStale(value);
+                if (stale != null) {
+                    staleMap.put(staleKeyList.get(i), stale);
+                } else if (ArrayUtils.isNotEmpty(value)) {
+                    deleteKeyList.add(staleKeyList.get(i));
+                }
+            }
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            staleMap.forEach((key, value) -> connection.stringCommands().set(toBytes(key.getValueKey()), value,
+                    Expiration.seconds(jitter(key.getType().getTtl())), RedisStringCommands.SetOption.upsert()));
+            List<byte[]> deleteKeyBytesList = new ArrayList<>();
+            deleteKeyList.forEach(key -> deleteKeyBytesList.add(toBytes(key.getValueKey() != null ? key.getValueKey() : key.getHashKey())));
+            if (deleteKeyBytesList.isEmpty()) {
+                return null;
+            }
+            connection.keyCommands().del(deleteKeyBytesList.toArray(new byte[0][]));
+            return null;
+        });
+        staleMap.forEach((key, value) -> {
+            localCacheService.put(key, value);
+            localCacheService.publishChanged(key);
+            cacheMetrics.recordEviction(key.getType(), "invalidate");
+        });
+        for (CacheKeyEntity key : deleteKeyList) {
+            if (key.getType() == null) {
+                continue;
+            }
+            if (key.getValueKey() != null) {
+                localCacheService.evict(key);
+            } else {
+                localCacheService.hEvict(key);
+            }
+            cacheMetrics.recordEviction(key.getType(), "invalidate");
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInvalidation(CacheInvalidationEvent event) {
+        invalidate(event.getDependencyKeySet());
     }
 
     @Override
     public void del(CacheKeyEntity key) {
         redisTemplate.delete(key.getValueKey());
+        localCacheService.evict(key);
+        cacheMetrics.recordEviction(key.getType(), "del");
+    }
+
+    /**
+     * 지우지 않고 stale 로 표시해서 다음 조회는 이전 값을 바로 받고 백그라운드에서 다시 만들게 함.
+     * 트랜잭션 안이면 commit 이후에 표시함 (commit 전에 재생성되면 변경 전 값이 다시 fresh 로 들어갈 수 있음)
+     */
+    @Override
+    public void markStale(CacheKeyEntity key) {
+        cacheMetrics.recordEviction(key.getType(), "markStale");
+        if (key.getType().isSoftExpirable() == false) {
+            del(key);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    storeStale(key);
+                }
+            });
+        } else {
+            storeStale(key);
+        }
+    }
+
+    /**
+     * tombstone 이 없다는 것도 L1 에 localTtl 동안 들고 있어서, 있는 id 조회마다 Redis GET 이 붙지 않음
+     */
+    @Override
+    public boolean isNotFound(CacheKeyEntity notFoundKey) {
+        byte[] value = localCacheService.get(notFoundKey);
+        String result = CacheMetrics.LOCAL_HIT;
+        if (value == null) {
+            value = valueOps.get(notFoundKey.getValueKey());
+            result = ArrayUtils.isEmpty(value) ? CacheMetrics.MISS : CacheMetrics.HIT;
+            localCacheService.put(notFoundKey, ArrayUtils.isEmpty(value) ? NO_TOMBSTONE : value);
+        }
+        cacheMetrics.recordGet(notFoundKey.getType(), "notFound", result);
+        return ArrayUtils.isNotEmpty(value);
+    }
+
+    /**
+     * 없는 id 조회가 몰릴 때 부르므로 SET EX 한 번만 보내고 다른 노드에 전파하지 않음.
+     * 다른 노드 L1 의 "tombstone 없음" 은 localTtl 이 지나면 사라짐 (그 사이는 DB 에서 한 번 더 확인할 뿐)
+     */
+    @Override
+    public void markNotFound(CacheKeyEntity notFoundKey) {
+        byte[] value = cacheValueCodec.encode(notFoundKey.getType(), Boolean.TRUE);
+        valueOps.set(notFoundKey.getValueKey(), value, jitter(notFoundKey.getType().getTtl()), TimeUnit.SECONDS);
+        localCacheService.put(notFoundKey, value);
+        cacheMetrics.recordPut(notFoundKey.getType(), "notFound", value.length);
+    }
+
+    @Override
+    public void clearNotFound(CacheKeyEntity notFoundKey) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    del(notFoundKey);
+                }
+            });
+        } else {
+            del(notFoundKey);
+        }
     }
 
     @Override
@@ -66,7 +320,7 @@ public class RedisCacheService implements CacheService {
         long ttl = key.getType().getTtl();
 
         if (ttl > 0) {
-            redisTemplate.expire(key.getValueKey(), ttl, TimeUnit.SECONDS);
+            redisTemplate.expire(key.getValueKey(), jitter(ttl), TimeUnit.SECONDS);
         }
     }
 
@@ -86,44 +340,118 @@ public class RedisCacheService implements CacheService {
 
     @Override
     public boolean exist(CacheKeyEntity key) {
-        return StringUtils.isNotEmpty(valueOps.get(key.getValueKey()));
+        return ArrayUtils.isNotEmpty(getValue(key, null));
+    }
+
+    @Override
+    public <T> T hGet(CacheKeyEntity key, Supplier<T> supplier, Class<T> clazz) {
+        byte[] value = loadHashValue(key, supplier, "hGet");
+        return ArrayUtils.isEmpty(value) ? null : cacheValueCodec.decode(value, clazz);
     }
 
     @Override
     public <T> Optional<T> hGet(CacheKeyEntity key, Class<T> clazz) {
-        String value = hashOps.get(key.getHashKey(), key.getHashField());
-        if (StringUtils.isEmpty(value)) {
+        byte[] value = getHashValue(key, "hGet");
+        if (ArrayUtils.isEmpty(value)) {
             return Optional.empty();
         }
 
-        return Optional.ofNullable(objectMapperService.getFromJson(value, clazz));
+        return Optional.ofNullable(cacheValueCodec.decode(value, clazz));
+    }
+
+    /**
+     * 여러 hash key 의 field 를 pipeline 으로 한 번에 조회. 없는 값은 null 로 채움.
+     * 로컬 캐시에 있는 것은 빼고 나머지만 Redis 에서 조회함.
+     */
+    @Override
+    public <T> List<T> hGetAll(List<CacheKeyEntity> keyList, Class<T> clazz) {
+        List<byte[]> valueList = new ArrayList<>(keyList.size());
+        List<Integer> missIndexList = new ArrayList<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] value = dropExpiredField(keyList.get(i), localCacheService.hGet(keyList.get(i)));
+            valueList.add(value);
+            if (value == null) {
+                missIndexList.add(i);
+            } else {
+                cacheMetrics.recordGet(keyList.get(i).getType(), "hGetAll", CacheMetrics.LOCAL_HIT);
+            }
+        }
+        if (missIndexList.isEmpty() == false) {
+            List<Object> redisValueList = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Integer index : missIndexList) {
+                    CacheKeyEntity key = keyList.get(index);
+                    connection.hashCommands().hGet(toBytes(key.getHashKey()), toBytes(key.getHashField()));
+                }
+                return null;
+            });
+            for (int i = 0; i < missIndexList.size(); i++) {
+                byte[] value = (byte[]) redisValueList.get(i);
+                localCacheService.hPut(keyList.get(missIndexList.get(i)), value);
+                value = dropExpiredField(keyList.get(missIndexList.get(i)), value);
+                valueList.set(missIndexList.get(i), value);
+                cacheMetrics.recordGet(keyList.get(missIndexList.get(i)).getType(), "hGetAll", ArrayUtils.isNotEmpty(value));
+            }
+        }
+        return decodeAll(valueList, clazz);
+    }
+
+    /**
+     * hash field 들을 pipeline 으로 한 번에 저장, hash key 별로 TTL 도 같이 갱신함
+     */
+    @Override
+    public <T> void hSetAll(Map<CacheKeyEntity, T> valueMap) {
+        Map<CacheKeyEntity, byte[]> encodedMap = encodeAll(valueMap);
+        if (encodedMap.isEmpty()) {
+            return;
+        }
+        Map<String, Long> hashKeyTtlMap = new HashMap<>();
+        encodedMap.keySet().forEach(key -> hashKeyTtlMap.put(key.getHashKey(), key.getType().getTtl()));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            encodedMap.forEach((key, value) -> {
+                connection.hashCommands().hSet(toBytes(key.getHashKey()), toBytes(key.getHashField()), value);
+                CacheDependencyRegistry.add(connection, key);
+            });
+            hashKeyTtlMap.forEach((hashKey, ttl) -> {
+                if (ttl > 0) {
+                    connection.keyCommands().expire(toBytes(hashKey), jitter(ttl));
+                }
+            });
+            return null;
+        });
+        encodedMap.forEach((key, value) -> cacheStoreSupport.hCached(key, value, "hSetAll"));
     }
 
     @Override
     public Map<String, String> hGetEntire(CacheKeyEntity key) {
-        Map<String, String> entries = hashOps.entries(key.getHashKey());
+        Map<String, byte[]> entries = hashOps.entries(key.getHashKey());
         if (MapUtils.isEmpty(entries)) {
             return Maps.newHashMap();
         }
 
-        return entries;
+        Map<String, String> result = Maps.newHashMapWithExpectedSize(entries.size());
+        entries.forEach((field, value) -> result.put(field, cacheValueCodec.toJsonString(value)));
+        return result;
     }
 
     @Override
     public <T> void hSet(CacheKeyEntity key, T value) {
-        String v = objectMapperService.toJsonString(value);
-        hashOps.put(key.getHashKey(), key.getHashField(), v);
-        hExpire(key);
+        hStoreValue(key, cacheValueCodec.encode(key.getType(), value), "hSet");
+    }
+
+    @Override
+    public <T> List<T> hGetList(CacheKeyEntity key, Supplier<List<T>> supplier, Class<T> clazz) {
+        byte[] value = loadHashValue(key, supplier, "hGetList");
+        return value == null ? null : cacheValueCodec.decodeList(value, clazz);
     }
 
     @Override
     public <T> List<T> hGetList(CacheKeyEntity key, Class<T> clazz) {
-        String value = hashOps.get(key.getHashKey(), key.getHashField());
-        if (StringUtils.isEmpty(value)) {
+        byte[] value = getHashValue(key, "hGetList");
+        if (ArrayUtils.isEmpty(value)) {
             return null;
         }
 
-        return objectMapperService.getListFromJson(value, clazz);
+        return cacheValueCodec.decodeList(value, clazz);
     }
 
     @Override
@@ -131,17 +459,134 @@ public class RedisCacheService implements CacheService {
         long ttl = key.getType().getTtl();
 
         if (ttl > 0) {
-            redisTemplate.expire(key.getHashKey(), ttl, TimeUnit.SECONDS);
+            redisTemplate.expire(key.getHashKey(), jitter(ttl), TimeUnit.SECONDS);
         }
     }
 
     @Override
     public void hDelByHashKey(CacheKeyEntity key) {
         redisTemplate.delete(key.getHashKey());
+        localCacheService.hEvict(key);
+        cacheMetrics.recordEviction(key.getType(), "hDel");
     }
 
     @Override
     public void hDelByHashKeyAndHashField(CacheKeyEntity key) {
         hashOps.delete(key.getHashKey(), key.getHashField());
+        localCacheService.hEvictField(key);
+        cacheMetrics.recordEviction(key.getType(), "hDelField");
+    }
+
+    private <T> byte[] loadValue(CacheKeyEntity key, Supplier<T> supplier) {
+        long start = System.currentTimeMillis();
+        T data = cacheMetrics.recordLoad(key.getType(), "get", supplier);
+        return data == null ? null : storeValue(key, cacheValueCodec.encode(key.getType(), data, System.currentTimeMillis() - start), "set");
+    }
+
+    private void storeStale(CacheKeyEntity key) {
+        byte[] value = valueOps.get(key.getValueKey());
+        if (ArrayUtils.isEmpty(value)) {
+            return;
+        }
+        byte[] stale = cacheValueCodec.toStale(value);
+        if (stale == null) {
+            del(key);
+        } else {
+            storeValue(key, stale, null);
+        }
+    }
+
+    private <T> Map<CacheKeyEntity, byte[]> encodeAll(Map<CacheKeyEntity, T> valueMap) {
+        Map<CacheKeyEntity, byte[]> encodedMap = new LinkedHashMap<>();
+        valueMap.forEach((key, value) -> {
+            if (value != null) {
+                encodedMap.put(key, cacheValueCodec.encode(key.getType(), value));
+            }
+        });
+        return encodedMap;
+    }
+
+    private <T> List<T> decodeAll(List<byte[]> valueList, Class<T> clazz) {
+        List<T> result = new ArrayList<>(valueList.size());
+        for (byte[] value : valueList) {
+            result.add(ArrayUtils.isEmpty(value) ? null : cacheValueCodec.decode(value, clazz));
+        }
+        return result;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 같은 타입의 key 들이 한꺼번에 만료되지 않도록 TTL 을 최대 10% 늘림
+    static long jitter(long ttl) {
+        return ttl + ThreadLocalRandom.current().nextLong(ttl / 10 + 1);
+    }
+
+    // operation 이 null 이면 지표를 남기지 않음 (stale 표시 등)
+    private byte[] storeValue(CacheKeyEntity key, byte[] value, String operation) {
+        valueOps.set(key.getValueKey(), value);
+        expire(key);
+        cacheStoreSupport.stored(key, value, operation);
+        return value;
+    }
+
+    private byte[] hStoreValue(CacheKeyEntity key, byte[] value, String operation) {
+        hashOps.put(key.getHashKey(), key.getHashField(), value);
+        hExpire(key);
+        cacheStoreSupport.hStored(key, value, operation);
+        return value;
+    }
+
+    private <T> byte[] loadHashValue(CacheKeyEntity key, Supplier<T> supplier, String operation) {
+        byte[] value = getHashValue(key, operation);
+        if (ArrayUtils.isNotEmpty(value)) {
+            return value;
+        }
+        return cacheLoadService.load(key.getHashKey() + CacheKeyEntity.SEPARATOR + key.getHashField(), () -> getHashValue(key, null), () -> {
+            T data = cacheMetrics.recordLoad(key.getType(), operation, supplier);
+            return data == null ? null : hStoreValue(key, cacheValueCodec.encode(key.getType(), data), "hSet");
+        });
+    }
+
+    // 로컬(L1) 캐시에 없을 때만 Redis 조회, operation 이 null 이면 지표를 남기지 않음 (single-flight 대기 중 재확인 등)
+    private byte[] getValue(CacheKeyEntity key, String operation) {
+        byte[] value = localCacheService.get(key);
+        String result = CacheMetrics.LOCAL_HIT;
+        if (value == null) {
+            value = valueOps.get(key.getValueKey());
+            localCacheService.put(key, value);
+            result = ArrayUtils.isEmpty(value) ? CacheMetrics.MISS : CacheMetrics.HIT;
+        }
+        if (operation != null) {
+            cacheMetrics.recordGet(key.getType(), operation, result);
+        }
+        return value;
+    }
+
+    private byte[] getHashValue(CacheKeyEntity key, String operation) {
+        byte[] value = localCacheService.hGet(key);
+        String result = CacheMetrics.LOCAL_HIT;
+        if (value == null) {
+            value = hashOps.get(key.getHashKey(), key.getHashField());
+            localCacheService.hPut(key, value);
+            result = ArrayUtils.isEmpty(value) ? CacheMetrics.MISS : CacheMetrics.HIT;
+        }
+        value = dropExpiredField(key, value);
+        if (value == null) {
+            result = CacheMetrics.MISS;
+        }
+        if (operation != null) {
+            cacheMetrics.recordGet(key.getType(), operation, result);
+        }
+        return value;
+    }
+
+    // hash key 의 TTL 은 field 를 쓸 때마다 늘어나므로, soft TTL 타입의 hash field 는 soft TTL 이 지나면 없는 것으로 봄
+    private byte[] dropExpiredField(CacheKeyEntity key, byte[] value) {
+        if (ArrayUtils.isEmpty(value) || key.getType() == null || key.getType().isSoftExpirable() == false) {
+            return value;
+        }
+        return cacheValueCodec.parse(value).isStale(System.currentTimeMillis()) ? null : value;
     }
 }
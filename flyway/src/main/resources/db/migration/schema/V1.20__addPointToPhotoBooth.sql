@@ -0,0 +1,14 @@
+--
+-- Add spatial column to table `photo_booth`
+--
+ALTER TABLE `photo_booth`
+    ADD COLUMN `point` POINT SRID 4326 NULL COMMENT '좌표(SRID 4326)' AFTER `longitude`;
+
+UPDATE `photo_booth`
+SET `point` = ST_GeomFromText(CONCAT('POINT(', `longitude`, ' ', `latitude`, ')'), 4326, 'axis-order=long-lat');
+
+ALTER TABLE `photo_booth`
+    MODIFY COLUMN `point` POINT SRID 4326 NOT NULL COMMENT '좌표(SRID 4326)';
+
+create spatial index photo_booth_point_sindex
+    on photo_booth (point);
@@ -0,0 +1,26 @@
+--
+-- Add change version to table `photo_booth`
+--
+ALTER TABLE `photo_booth`
+    ADD COLUMN `version` bigint NOT NULL DEFAULT 0 COMMENT '변경 버전' AFTER `status`;
+
+UPDATE `photo_booth`
+SET `version` = 1;
+
+create index photo_booth_version_index
+    on photo_booth (version, id);
+
+create index photo_booth_updated_at_index
+    on photo_booth (updated_at);
+
+--
+-- Table structure for table `photo_booth_version_sequence`
+--
+DROP TABLE IF EXISTS `photo_booth_version_sequence`;
+CREATE TABLE `photo_booth_version_sequence` (
+  `id` tinyint NOT NULL COMMENT 'sequence id',
+  `version` bigint NOT NULL COMMENT '마지막으로 발급한 버전',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='포토부스 변경 버전 시퀀스';
+
+INSERT INTO `photo_booth_version_sequence` (`id`, `version`) VALUES (1, 1);
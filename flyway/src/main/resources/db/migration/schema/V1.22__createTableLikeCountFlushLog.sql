@@ -0,0 +1,12 @@
+--
+-- Table structure for table `like_count_flush_log`
+--
+DROP TABLE IF EXISTS `like_count_flush_log`;
+CREATE TABLE `like_count_flush_log` (
+  `batch_id` varchar(36) NOT NULL COMMENT 'Redis 에서 꺼낸 좋아요 수 batch id',
+  `target_type` varchar(20) NOT NULL COMMENT '좋아요 대상 (PHOTO_BOOTH, POST, REVIEW_IMAGE)',
+  `size` int NOT NULL COMMENT '반영한 대상 수',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '반영 일시',
+  PRIMARY KEY (`batch_id`),
+  KEY `like_count_flush_log_created_at_index` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='좋아요 수 batch 반영 이력 (같은 batch 중복 반영 방지)';
@@ -0,0 +1,5 @@
+--
+-- Add index for photo booth tag filter (EXISTS ... WHERE rt.photo_booth_id = p.id AND rt.tag_id IN (...))
+--
+create index review_tag_photo_booth_id_tag_id_index
+    on review_tag (photo_booth_id, tag_id);